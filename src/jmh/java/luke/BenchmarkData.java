@@ -0,0 +1,142 @@
+package luke;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Builds the synthetic tasks and commands used by the benchmarks.
+ * The same seed always gives the same data, so results from different runs can be compared.
+ */
+final class BenchmarkData {
+    static final long SEED = 42;
+
+    private static final String[] WORDS = {
+        "read", "book", "meeting", "report", "project", "review", "call", "email", "plan", "budget",
+        "team", "client", "draft", "design", "fix", "test", "deploy", "lunch", "gym", "groceries"
+    };
+    private static final int DONE_PERCENT = 30;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Makes commands that add tasks, spread evenly over todos, deadlines and events.
+     *
+     * @param count Number of commands
+     * @param seed Seed for the random choices
+     * @return Commands like "deadline review budget 17 /by 2/12/2019 1800"
+     */
+    static String[] addCommands(int count, long seed) {
+        Random random = new Random(seed);
+        String[] commands = new String[count];
+        for (int i = 0; i < count; i++) {
+            switch (i % 3) {
+                case 0:
+                    commands[i] = "todo " + description(random, i);
+                    break;
+                case 1:
+                    commands[i] = "deadline " + description(random, i) + " /by " + dateTime(random);
+                    break;
+                default:
+                    commands[i] = "event " + description(random, i) + " /from " + dateTime(random) + " /to 1800";
+                    break;
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Makes commands of one kind only.
+     *
+     * @param prefix "deadline" or "event"
+     * @param count Number of commands
+     * @param seed Seed for the random choices
+     * @return Commands starting with the prefix
+     */
+    static String[] addCommands(String prefix, int count, long seed) {
+        Random random = new Random(seed);
+        String[] commands = new String[count];
+        for (int i = 0; i < count; i++) {
+            commands[i] = prefix.equals("deadline")
+                    ? "deadline " + description(random, i) + " /by " + dateTime(random)
+                    : "event " + description(random, i) + " /from " + dateTime(random) + " /to 1800";
+        }
+        return commands;
+    }
+
+    /**
+     * Makes a task list with IDs, about a third of it done.
+     *
+     * @param count Number of tasks
+     * @param seed Seed for the random choices
+     * @return Tasks in the order they were added
+     */
+    static ArrayList<Task> tasks(int count, long seed) {
+        Random random = new Random(seed);
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        try {
+            for (String command : addCommands(count, seed)) {
+                Task task;
+                if (command.startsWith("deadline ")) {
+                    task = Parser.parseDeadline(command);
+                } else if (command.startsWith("event ")) {
+                    task = Parser.parseEvent(command);
+                } else {
+                    task = new Task(command.substring("todo ".length()), Task.TYPE_TODO);
+                }
+                if (random.nextInt(100) < DONE_PERCENT) {
+                    task.markAsDone();
+                }
+                tasks.add(task);
+            }
+        } catch (LukeException e) {
+            throw new IllegalStateException("Generated an invalid command", e);
+        }
+        return new TaskList(tasks).getTasks(); // Assigns IDs
+    }
+
+    /**
+     * Writes tasks to a save file in a new temporary folder.
+     *
+     * @param tasks Tasks to save
+     * @param isBinaryFormat Whether to use the binary format
+     * @return Path of the save file
+     */
+    static Path writeSaveFile(ArrayList<Task> tasks, boolean isBinaryFormat) throws IOException, LukeException {
+        Path file = Files.createTempDirectory("luke-benchmark").resolve("luke.txt");
+        new Storage(file.toString(), isBinaryFormat, false, 0).save(tasks);
+        return file;
+    }
+
+    /**
+     * Deletes a folder made by writeSaveFile, with everything in it.
+     *
+     * @param file Save file in the folder
+     */
+    static void deleteSaveFolder(Path file) throws IOException {
+        try (Stream<Path> paths = Files.walk(file.getParent())) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static String description(Random random, int number) {
+        StringBuilder description = new StringBuilder();
+        int wordCount = 2 + random.nextInt(4);
+        for (int i = 0; i < wordCount; i++) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return description.append(number).toString();
+    }
+
+    private static String dateTime(Random random) {
+        return (1 + random.nextInt(28)) + "/" + (1 + random.nextInt(12)) + "/" + (2020 + random.nextInt(10))
+                + " " + String.format("%02d%02d", random.nextInt(24), random.nextInt(60));
+    }
+}
@@ -0,0 +1,67 @@
+package luke;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures commands end to end through Luke.getResponse, including saving.
+ * The "read" workload only lists and finds. The "write" workload marks and unmarks
+ * tasks, so the list keeps its size while every command is saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandBenchmark {
+    private static final String[] READ_COMMANDS = {
+        "list page 1", "find budget", "find /w client review", "list 500-600", "find 4242 --limit 10"
+    };
+    private static final String[] WRITE_COMMANDS = {"mark 7", "unmark 7", "mark #42", "unmark #42", "mark 1,3,5-9"};
+
+    @Param({"1000", "100000"})
+    public int taskCount;
+
+    @Param({"read", "write"})
+    public String workload;
+
+    private Path saveFile;
+    private Luke luke;
+    private String[] commands;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException, LukeException {
+        saveFile = BenchmarkData.writeSaveFile(BenchmarkData.tasks(taskCount, BenchmarkData.SEED), false);
+        luke = new Luke(saveFile.toString());
+        commands = workload.equals("read") ? READ_COMMANDS : WRITE_COMMANDS;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        luke.shutdown();
+        BenchmarkData.deleteSaveFolder(saveFile);
+    }
+
+    @Benchmark
+    public String getResponse() {
+        String command = commands[next];
+        next = (next + 1) % commands.length;
+        return luke.getResponse(command);
+    }
+}
@@ -0,0 +1,23 @@
+package luke;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * The FileWriter save that Storage used before saves went through a synced temp file.
+ * Kept only as a baseline for StorageBenchmark; it writes the same lines, without the trailer.
+ */
+final class FileWriterSaver {
+    private FileWriterSaver() {
+    }
+
+    static void save(Path saveFile, ArrayList<Task> tasks) throws IOException {
+        FileWriter writer = new FileWriter(saveFile.toString());
+        for (Task task : tasks) {
+            writer.write(Storage.formatTask(task) + "\n");
+        }
+        writer.close();
+    }
+}
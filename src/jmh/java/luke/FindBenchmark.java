@@ -0,0 +1,89 @@
+package luke;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the kinds of search behind the find command.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindBenchmark {
+    private static final int MANY_KEYWORD_COUNT = 64;
+
+    @Param({"10000", "100000", "1000000"})
+    public int taskCount;
+
+    private TaskList taskList;
+    private String[] manyKeywords;
+
+    @Setup
+    public void setUp() {
+        taskList = new TaskList(BenchmarkData.tasks(taskCount, BenchmarkData.SEED));
+        manyKeywords = new String[MANY_KEYWORD_COUNT];
+        for (int i = 0; i < MANY_KEYWORD_COUNT; i++) {
+            manyKeywords[i] = String.valueOf(1000 + i * 997); // Task numbers, each in a few tasks
+        }
+    }
+
+    /** A word in about a fifth of all tasks. */
+    @Benchmark
+    public ArrayList<Integer> findCommonKeyword() {
+        return taskList.findByKeyword("budget");
+    }
+
+    /** A task number, which only a few tasks contain. */
+    @Benchmark
+    public ArrayList<Integer> findRareKeyword() {
+        return taskList.findByKeyword("4242");
+    }
+
+    @Benchmark
+    public ArrayList<Integer> findWholeWords() {
+        return taskList.findByWords("budget client");
+    }
+
+    @Benchmark
+    public ArrayList<Task> findAnyKeyword() {
+        return Parser.findTasksByKeywords(taskList, "budget", "client", "deploy");
+    }
+
+    /** The case the Aho-Corasick matcher is for: each description is still scanned once. */
+    @Benchmark
+    public ArrayList<Task> findAnyOfManyKeywords() {
+        return Parser.findTasksByKeywords(taskList, manyKeywords);
+    }
+
+    /** The same search with one contains check per keyword, as find worked before the matcher. */
+    @Benchmark
+    public ArrayList<Task> findAnyOfManyKeywordsOneByOne() {
+        ArrayList<Task> matches = new ArrayList<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            Task task = taskList.getTask(i);
+            String description = task.getDescription().toLowerCase();
+            for (String keyword : manyKeywords) {
+                if (description.contains(keyword)) {
+                    matches.add(task);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+}
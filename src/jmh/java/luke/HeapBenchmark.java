@@ -0,0 +1,62 @@
+package luke;
+
+import java.lang.ref.Reference;
+import java.util.function.Supplier;
+
+/**
+ * Compares how much heap a TaskList and a ColumnarTaskList keep for the same tasks.
+ * JMH measures time rather than retained memory, so this runs on its own:
+ * {@code gradlew heapBenchmark}, or {@code gradlew heapBenchmark -PheapTaskCounts=100000,1000000}.
+ */
+public final class HeapBenchmark {
+    private static final int[] DEFAULT_TASK_COUNTS = {100_000, 1_000_000};
+    private static final int GC_ROUNDS = 4;
+
+    private HeapBenchmark() {
+    }
+
+    /**
+     * Prints the retained heap of both lists for each task count.
+     *
+     * @param args Task counts to measure, or none for 100k and 1M
+     */
+    public static void main(String[] args) {
+        int[] taskCounts = DEFAULT_TASK_COUNTS;
+        if (args.length > 0) {
+            taskCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                taskCounts[i] = Integer.parseInt(args[i].trim());
+            }
+        }
+
+        System.out.printf("%10s %14s %14s %8s%n", "tasks", "TaskList", "Columnar", "ratio");
+        for (int taskCount : taskCounts) {
+            long objectBytes = measureRetainedBytes(
+                    () -> new TaskList(BenchmarkData.tasks(taskCount, BenchmarkData.SEED)));
+            long columnarBytes = measureRetainedBytes(
+                    () -> new ColumnarTaskList(BenchmarkData.tasks(taskCount, BenchmarkData.SEED)));
+            System.out.printf("%10d %11.1f MB %11.1f MB %8.2f%n", taskCount, objectBytes / 1e6,
+                    columnarBytes / 1e6, (double) columnarBytes / objectBytes);
+        }
+    }
+
+    /**
+     * Measures how much more heap is in use after building something than before,
+     * once everything the build left behind has been collected.
+     */
+    private static long measureRetainedBytes(Supplier<Object> build) {
+        long before = getUsedHeapAfterGc();
+        Object built = build.get();
+        long after = getUsedHeapAfterGc();
+        Reference.reachabilityFence(built);
+        return after - before;
+    }
+
+    private static long getUsedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
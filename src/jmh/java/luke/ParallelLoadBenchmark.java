@@ -0,0 +1,63 @@
+package luke;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how reading a text save file in parallel scales with the number of threads.
+ * A parallelism of 1 reads the chunks one after another, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelLoadBenchmark {
+    @Param({"100000", "1000000"})
+    public int taskCount;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private Path saveFile;
+    private FileChannel channel;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() throws IOException, LukeException {
+        saveFile = BenchmarkData.writeSaveFile(BenchmarkData.tasks(taskCount, BenchmarkData.SEED), false);
+        channel = FileChannel.open(saveFile, StandardOpenOption.READ);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        channel.close();
+        BenchmarkData.deleteSaveFolder(saveFile);
+    }
+
+    @Benchmark
+    public ArrayList<Task> readParallel() throws IOException {
+        return TaskFileReader.readParallel(channel, pool);
+    }
+}
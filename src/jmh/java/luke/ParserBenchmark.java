@@ -0,0 +1,71 @@
+package luke;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing commands that add tasks, and reading back the dates they store.
+ * The split-based parsing Parser used to do is measured alongside, as a baseline.
+ * Each call takes the next of a fixed set of inputs, so branch prediction can't memorise one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private static final int INPUT_COUNT = 1024; // A power of two, so the next input is found with a mask
+
+    private String[] deadlines;
+    private String[] events;
+    private String[] displayTimes;
+    private int next;
+
+    @Setup
+    public void setUp() throws LukeException {
+        deadlines = BenchmarkData.addCommands("deadline", INPUT_COUNT, BenchmarkData.SEED);
+        events = BenchmarkData.addCommands("event", INPUT_COUNT, BenchmarkData.SEED);
+        displayTimes = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            displayTimes[i] = Parser.parseDeadline(deadlines[i]).getTime();
+        }
+    }
+
+    @Benchmark
+    public Task parseDeadline() throws LukeException {
+        return Parser.parseDeadline(deadlines[next++ & (INPUT_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Task parseEvent() throws LukeException {
+        return Parser.parseEvent(events[next++ & (INPUT_COUNT - 1)]);
+    }
+
+    /** The split-based parse that parseDeadline replaced, for comparison. */
+    @Benchmark
+    public Task parseDeadlineBySplitting() throws LukeException {
+        return SplitParser.parseDeadline(deadlines[next++ & (INPUT_COUNT - 1)]);
+    }
+
+    /** The split-based parse that parseEvent replaced, for comparison. */
+    @Benchmark
+    public Task parseEventBySplitting() throws LukeException {
+        return SplitParser.parseEvent(events[next++ & (INPUT_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public long toEpochMinutes() {
+        return Parser.toEpochMinutes(displayTimes[next++ & (INPUT_COUNT - 1)]);
+    }
+}
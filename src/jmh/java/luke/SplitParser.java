@@ -0,0 +1,82 @@
+package luke;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * The split-based deadline and event parsing that Parser used before it scanned input in place.
+ * Kept only as a baseline for ParserBenchmark; it gives the same tasks for the benchmark's inputs.
+ */
+final class SplitParser {
+    private static final int DEADLINE_PREFIX_LENGTH = 9; // Length of "deadline "
+    private static final int EVENT_PREFIX_LENGTH = 6; // Length of "event "
+    private static final String DEADLINE_SEPARATOR = " /by ";
+    private static final String EVENT_FROM_SEPARATOR = " /from ";
+    private static final String EVENT_TO_SEPARATOR = " /to ";
+    private static final String[] MONTH_NAMES = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private SplitParser() {
+    }
+
+    static Task parseDeadline(String input) throws LukeException {
+        if (!input.contains(DEADLINE_SEPARATOR)) {
+            throw new LukeException("Please tell me the deadline using /by after a task! Try again.");
+        }
+
+        String[] parts = input.substring(DEADLINE_PREFIX_LENGTH).split(DEADLINE_SEPARATOR);
+        return createTask(parts[0], parts[1], Task.TYPE_DEADLINE);
+    }
+
+    static Task parseEvent(String input) throws LukeException {
+        if (!input.contains(EVENT_FROM_SEPARATOR) || !input.contains(EVENT_TO_SEPARATOR)) {
+            throw new LukeException("Please tell me the time using /from and /to! Try again.");
+        }
+
+        String[] parts = input.substring(EVENT_PREFIX_LENGTH).split(EVENT_FROM_SEPARATOR);
+        String[] timeParts = parts[1].split(EVENT_TO_SEPARATOR);
+        return createTask(parts[0], timeParts[0], Task.TYPE_EVENT);
+    }
+
+    private static Task createTask(String description, String dateTime, String type) throws LukeException {
+        String[] dateParts = dateTime.split(" ");
+        if (dateParts.length != 2) {
+            throw new LukeException("Please use format: day/month/year time (e.g., 2/12/2019 1800)");
+        }
+
+        String[] date = dateParts[0].split("/");
+        String time = dateParts[1];
+        Task task = new Task(description, type);
+        task.setTime(getMonthName(date[1]) + " " + date[0] + " " + date[2] + ", " + formatTime(time),
+                toEpochMinutes(date, time));
+        return task;
+    }
+
+    private static String getMonthName(String monthNumber) {
+        try {
+            return MONTH_NAMES[Integer.parseInt(monthNumber) - 1];
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return monthNumber;
+        }
+    }
+
+    private static String formatTime(String time) {
+        int hour = Integer.parseInt(time.substring(0, 2));
+        int displayHour = hour <= 12 ? hour : hour - 12;
+        return (displayHour == 0 ? 12 : displayHour) + (hour < 12 ? "AM" : "PM");
+    }
+
+    private static long toEpochMinutes(String[] date, String time) {
+        try {
+            int hour = Integer.parseInt(time.substring(0, 2));
+            int minute = time.length() >= 4 ? Integer.parseInt(time.substring(2, 4)) : 0;
+            LocalDate day = LocalDate.of(Integer.parseInt(date[2]), Integer.parseInt(date[1]),
+                    Integer.parseInt(date[0]));
+            return day.toEpochDay() * MINUTES_PER_DAY + hour * 60 + minute;
+        } catch (NumberFormatException | DateTimeException | IndexOutOfBoundsException e) {
+            return Task.NO_DATE;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package luke;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading and saving whole task files of several sizes, in both formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"text", "binary"})
+    public String format;
+
+    private ArrayList<Task> tasks;
+    private Path saveFile;
+    private Storage storage;
+
+    @Setup
+    public void setUp() throws IOException, LukeException {
+        boolean isBinaryFormat = format.equals("binary");
+        tasks = BenchmarkData.tasks(taskCount, BenchmarkData.SEED);
+        saveFile = BenchmarkData.writeSaveFile(tasks, isBinaryFormat);
+        storage = new Storage(saveFile.toString(), isBinaryFormat, false, 0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteSaveFolder(saveFile);
+    }
+
+    @Benchmark
+    public ArrayList<Task> load() throws LukeException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void save() throws LukeException {
+        storage.save(tasks);
+    }
+
+    /**
+     * The FileWriter save that save() replaced, for comparison: it writes the text lines
+     * straight over the save file, with no temp file, sync, rename or trailer.
+     * It always writes text, so compare it with save() in the text format.
+     */
+    @Benchmark
+    public void saveWithFileWriter() throws IOException {
+        FileWriterSaver.save(saveFile, tasks);
+    }
+}
@@ -0,0 +1,69 @@
+package luke;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures sorting a task list for the first time, when its sorted view still has to be built.
+ * Each call gets a fresh list in the order the tasks were added. The columnar list sorts
+ * its rows every time, so it is measured alongside.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListBenchmark {
+    @Param({"10000", "100000"})
+    public int taskCount;
+
+    @Param({"object", "columnar"})
+    public String listType;
+
+    private ArrayList<Task> tasks;
+    private TaskList taskList;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.tasks(taskCount, BenchmarkData.SEED);
+    }
+
+    @Setup(Level.Invocation)
+    public void makeTaskList() {
+        taskList = listType.equals("columnar")
+                ? new ColumnarTaskList(new ArrayList<>(tasks))
+                : new TaskList(new ArrayList<>(tasks));
+    }
+
+    @Benchmark
+    public TaskList sortByDate() {
+        taskList.sortByDate();
+        return taskList;
+    }
+
+    @Benchmark
+    public TaskList sortByDescription() {
+        taskList.sortByDescription();
+        return taskList;
+    }
+
+    @Benchmark
+    public TaskList sortByType() {
+        taskList.sortByType();
+        return taskList;
+    }
+}
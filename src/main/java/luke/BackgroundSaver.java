@@ -0,0 +1,115 @@
+package luke;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves a task list in the background.
+ * Changes made within one flush interval are merged into a single save,
+ * so commands don't have to wait for the file to be written.
+ */
+public class BackgroundSaver {
+    private final Storage storage;
+    private final TaskList tasks;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService executor;
+    private final Thread shutdownHook;
+
+    private volatile long savedVersion;
+    private boolean isFlushScheduled;
+
+    /**
+     * Creates a background saver for a task list.
+     * All changes to the task list must be made while holding its lock.
+     *
+     * @param storage Storage to save to
+     * @param tasks Task list to save
+     * @param flushIntervalMillis How long changes may stay unsaved, in milliseconds
+     */
+    public BackgroundSaver(Storage storage, TaskList tasks, long flushIntervalMillis) {
+        this.storage = storage;
+        this.tasks = tasks;
+        this.flushIntervalMillis = flushIntervalMillis;
+        synchronized (tasks) {
+            this.savedVersion = tasks.getVersion();
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "luke-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shutdownHook = new Thread(this::flushQuietly, "luke-saver-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Asks for the task list to be saved.
+     * Returns right away; the save happens within one flush interval.
+     */
+    public synchronized void requestSave() {
+        if (isFlushScheduled) {
+            return; // The pending flush will pick this change up too
+        }
+        isFlushScheduled = true;
+        executor.schedule(this::flushQuietly, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves the task list now if it has unsaved changes.
+     *
+     * @throws LukeException If the file can't be written
+     */
+    public void flush() throws LukeException {
+        synchronized (this) {
+            isFlushScheduled = false;
+        }
+
+        ArrayList<Task> snapshot;
+        long version;
+        long nextId;
+        synchronized (tasks) {
+            version = tasks.getVersion();
+            if (version == savedVersion) {
+                return;
+            }
+            snapshot = new ArrayList<>(tasks.getTasks());
+            nextId = tasks.getNextId();
+        }
+
+        // Only one save may run at a time, and an older copy must never overwrite a newer one.
+        // The task list lock is not held here, so commands can continue while the file is written.
+        synchronized (storage) {
+            if (version <= savedVersion) {
+                return;
+            }
+            storage.save(snapshot, nextId);
+            savedVersion = version;
+        }
+    }
+
+    /**
+     * Saves any unsaved changes and stops the background thread.
+     *
+     * @throws LukeException If the file can't be written
+     */
+    public void close() throws LukeException {
+        executor.shutdownNow();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; the hook will flush
+        }
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (LukeException e) {
+            System.out.println("Warning: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package luke;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Reads and writes the compact binary save format.
+ *
+ * <p>Layout: the magic bytes "LUKB", an int format version and an int task count,
+ * followed by one record per task. Each record starts with a flags byte holding the
+ * type code, the done flag and what the time is made of. Then come the task ID, the
+ * epoch-minute date (if any), the description, and the time text unless it can be
+ * rebuilt from the date. Numbers and string lengths are stored as variable-length
+ * integers, and strings as UTF-8. Version 1 files, written before IDs, are still read.
+ * Anything after the last record, such as the trailer Storage adds, is ignored.</p>
+ */
+public class BinarySnapshot {
+    private static final byte[] MAGIC = {'L', 'U', 'K', 'B'};
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_IDS = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final int MAX_CACHED_TIMES = 4096;
+
+    // Flags byte layout
+    private static final int TYPE_MASK = 0x03;
+    private static final int TYPE_CODE_TODO = 0;
+    private static final int TYPE_CODE_DEADLINE = 1;
+    private static final int TYPE_CODE_EVENT = 2;
+    private static final int TYPE_CODE_OTHER = 3; // Type string follows the flags byte
+    private static final int TIME_FROM_DATE_FLAG = 0x20; // Time text is the formatted date
+    private static final int HAS_DATE_FLAG = 0x40;
+    private static final int DONE_FLAG = 0x80;
+
+    private byte[] scratch = new byte[256]; // Reused for decoding strings
+    private final HashMap<Long, String> formattedTimes = new HashMap<>(); // Dates repeat a lot
+
+    /**
+     * Checks whether a file is in the binary format.
+     *
+     * @param channel Channel of the file to check
+     * @return true if the file starts with the binary format's magic bytes
+     * @throws IOException If the file can't be read
+     */
+    public static boolean isBinary(FileChannel channel) throws IOException {
+        ByteBuffer start = ByteBuffer.allocate(MAGIC.length);
+        channel.read(start, 0);
+        return start.position() == MAGIC.length && start.flip().equals(ByteBuffer.wrap(MAGIC));
+    }
+
+    /**
+     * Reads every task in a binary save file.
+     * The file is read into the heap rather than mapped, since a mapping keeps the file
+     * open until it is garbage collected, and on Windows that stops the save from
+     * replacing it right after loading.
+     *
+     * @param channel Channel of the file to read
+     * @return List of tasks in file order
+     * @throws IOException If the file can't be read or is not a valid binary save file
+     */
+    public static ArrayList<Task> read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Binary save file is too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Binary save file is truncated");
+        }
+
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        int version = buffer.getInt();
+        if (!ByteBuffer.wrap(magic).equals(ByteBuffer.wrap(MAGIC))
+                || (version != VERSION && version != VERSION_WITHOUT_IDS)) {
+            throw new IOException("Unsupported binary save file");
+        }
+
+        int count = buffer.getInt();
+        try {
+            return new BinarySnapshot().readTasks(buffer, count, version != VERSION_WITHOUT_IDS);
+        } catch (RuntimeException e) {
+            throw new IOException("Binary save file is corrupted", e);
+        }
+    }
+
+    /**
+     * Writes tasks in the binary format.
+     *
+     * @param channel Channel to write to, positioned where the file should start
+     * @param tasks Tasks to write
+     * @throws IOException If the file can't be written
+     */
+    public static void write(WritableByteChannel channel, ArrayList<Task> tasks) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.put(MAGIC).putInt(VERSION).putInt(tasks.size());
+
+        for (Task task : tasks) {
+            int typeCode = encodeType(task.getType());
+            byte[] type = typeCode == TYPE_CODE_OTHER ? task.getType().getBytes(StandardCharsets.UTF_8) : null;
+            byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+
+            int flags = typeCode | (task.isDone() ? DONE_FLAG : 0);
+            long date = task.getEpochMinutes();
+            byte[] time = null;
+            if (date != Task.NO_DATE) {
+                flags |= HAS_DATE_FLAG;
+            }
+            if (date != Task.NO_DATE && Parser.fromEpochMinutes(date).equals(task.getTime())) {
+                flags |= TIME_FROM_DATE_FLAG;
+            } else {
+                time = task.getTime().getBytes(StandardCharsets.UTF_8);
+            }
+
+            int recordSize = 1 + 5 * MAX_VARINT_BYTES + description.length
+                    + (type == null ? 0 : type.length) + (time == null ? 0 : time.length);
+            buffer = ensureRoom(channel, buffer, recordSize);
+
+            buffer.put((byte) flags);
+            if (type != null) {
+                putBytes(buffer, type);
+            }
+            putVarLong(buffer, task.getId());
+            if (date != Task.NO_DATE) {
+                putVarLong(buffer, date);
+            }
+            putBytes(buffer, description);
+            if (time != null) {
+                putBytes(buffer, time);
+            }
+        }
+
+        drain(channel, buffer);
+    }
+
+    /**
+     * Converts a save file between the text and binary formats.
+     * Usage: {@code BinarySnapshot to-binary|to-text SOURCE TARGET}
+     *
+     * @param args Direction, source file and target file
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 || !(args[0].equals("to-binary") || args[0].equals("to-text"))) {
+            System.out.println("Usage: BinarySnapshot to-binary|to-text SOURCE TARGET");
+            return;
+        }
+
+        try {
+            Storage source = new Storage(args[1]);
+            ArrayList<Task> tasks = source.load(); // Either format is detected on load
+            boolean isBinaryFormat = args[0].equals("to-binary");
+            new Storage(args[2], isBinaryFormat, false, 0).save(tasks, source.getNextId());
+            System.out.println("Converted " + tasks.size() + " tasks to " + args[2]);
+        } catch (LukeException e) {
+            System.out.println("ERROR: " + e.getMessage());
+        }
+    }
+
+    private ArrayList<Task> readTasks(ByteBuffer buffer, int count, boolean hasIds) {
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = buffer.get();
+            String type = decodeType(flags & TYPE_MASK);
+            if (type == null) {
+                type = readString(buffer);
+            }
+            long id = hasIds ? getVarLong(buffer) : Task.NO_ID;
+            long date = (flags & HAS_DATE_FLAG) != 0 ? getVarLong(buffer) : Task.NO_DATE;
+            Task task = new Task(readString(buffer), type);
+            task.setId(id);
+            if ((flags & DONE_FLAG) != 0) {
+                task.markAsDone();
+            }
+            task.setTime((flags & TIME_FROM_DATE_FLAG) != 0 ? formatDate(date) : readString(buffer), date);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = (int) getVarLong(buffer);
+        if (length > scratch.length) {
+            scratch = new byte[length];
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String formatDate(long date) {
+        String time = formattedTimes.get(date);
+        if (time == null) {
+            time = Parser.fromEpochMinutes(date);
+            if (formattedTimes.size() < MAX_CACHED_TIMES) {
+                formattedTimes.put(date, time);
+            }
+        }
+        return time;
+    }
+
+    private static String decodeType(int typeCode) {
+        switch (typeCode) {
+            case TYPE_CODE_TODO:
+                return Task.TYPE_TODO;
+            case TYPE_CODE_DEADLINE:
+                return Task.TYPE_DEADLINE;
+            case TYPE_CODE_EVENT:
+                return Task.TYPE_EVENT;
+            default:
+                return null;
+        }
+    }
+
+    private static int encodeType(String type) {
+        switch (type) {
+            case Task.TYPE_TODO:
+                return TYPE_CODE_TODO;
+            case Task.TYPE_DEADLINE:
+                return TYPE_CODE_DEADLINE;
+            case Task.TYPE_EVENT:
+                return TYPE_CODE_EVENT;
+            default:
+                return TYPE_CODE_OTHER;
+        }
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        putVarLong(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes a number using 7 bits per byte, zigzag-encoded so small negative numbers stay short.
+     */
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte) zigzag);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalStateException("Variable-length number is too long");
+    }
+
+    /**
+     * Makes sure the buffer has room for a record, writing out its contents or growing it if needed.
+     */
+    private static ByteBuffer ensureRoom(WritableByteChannel channel, ByteBuffer buffer, int size)
+            throws IOException {
+        if (buffer.remaining() >= size) {
+            return buffer;
+        }
+        drain(channel, buffer);
+        if (buffer.remaining() >= size) {
+            return buffer;
+        }
+        return ByteBuffer.allocate(size);
+    }
+
+    private static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
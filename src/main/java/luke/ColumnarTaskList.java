@@ -0,0 +1,740 @@
+package luke;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+
+/**
+ * A task list that stores each field in its own array instead of keeping a Task object per task.
+ * Meant for very large lists, where object headers and per-task strings use more memory than the data.
+ * Start Luke with {@code -Dluke.tasks.columnar=true} to use it.
+ *
+ * <p>Each task has a row in the columns: a byte type code into a small table of type strings,
+ * a done flag in a BitSet, its time as epoch minutes, its ID, and its description as UTF-8 bytes
+ * packed into one array. A time is only kept as text when it can't be rebuilt from its epoch minutes.
+ * Rows stay where they are when the list is sorted or a task is deleted; the list order is an array
+ * of rows, and IDs are found through an open-addressing table of rows.</p>
+ *
+ * <p>Tasks returned by {@link #getTask(int)} are flyweight views that read and write their row.
+ * A view keeps working after sorts and deletes, even for the task it was deleted from, until
+ * an add reclaims the rows of deleted tasks; views taken before that keep reading the task as
+ * it was.</p>
+ *
+ * <p>Overrides every public method of {@link TaskList}, so it can be used wherever a TaskList is.
+ * Sorting sorts the rows each time and searching scans the descriptions, rather than keeping
+ * sorted views and indexes, since those would hold an object per task.</p>
+ */
+public class ColumnarTaskList extends TaskList {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int DERIVED_TIME = -1; // Time text is the formatted epoch minutes
+    private static final int MAX_TYPES = 256;
+    private static final int DELETED = -1; // Position of a deleted task's row
+    private static final int EMPTY_SLOT = 0; // ID table slots hold row + 1
+
+    private Columns columns = new Columns(new ArrayList<>(), INITIAL_CAPACITY, INITIAL_CAPACITY * 32);
+    private int rowCount; // Rows used, including those of deleted tasks
+    private int deletedRowCount;
+    private int size;
+    private int[] order = new int[INITIAL_CAPACITY]; // Row of the task at each position
+    private int[] positions = new int[INITIAL_CAPACITY]; // Position of the task in each row, or DELETED
+    private int[] idSlots = new int[INITIAL_CAPACITY * 2]; // Rows by ID, at most half full
+    private long version; // Bumped on every change so savers can tell the list is dirty
+    private long nextId = Task.NO_ID + 1;
+
+    /**
+     * Creates a new empty task list.
+     */
+    public ColumnarTaskList() {
+        columns.types.add(Task.TYPE_TODO);
+        columns.types.add(Task.TYPE_DEADLINE);
+        columns.types.add(Task.TYPE_EVENT);
+    }
+
+    /**
+     * Creates a task list with existing tasks.
+     * The tasks are copied into the columns. IDs are kept and given out as by {@link TaskList}.
+     *
+     * @param tasks The list of tasks to start with
+     */
+    public ColumnarTaskList(ArrayList<Task> tasks) {
+        this(tasks, Task.NO_ID + 1);
+    }
+
+    /**
+     * Creates a task list with existing tasks that were saved along with the next ID to hand out.
+     * The tasks are copied into the columns. IDs are kept and given out as by {@link TaskList}.
+     *
+     * @param tasks The list of tasks to start with
+     * @param savedNextId The saved next ID; IDs above every task's are used if it is lower
+     */
+    public ColumnarTaskList(ArrayList<Task> tasks, long savedNextId) {
+        this();
+        nextId = Math.max(nextId, savedNextId);
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        ensureCapacity(tasks.size());
+        for (Task task : tasks) {
+            append(task);
+        }
+    }
+
+    /**
+     * Adds a task to the list.
+     * The task is copied into the columns, and keeps its ID if it has one that is free.
+     *
+     * @param task The task to add
+     */
+    @Override
+    public void addTask(Task task) {
+        if (rowCount == order.length && deletedRowCount * 2 >= rowCount) {
+            compact();
+        }
+        ensureCapacity(rowCount + 1);
+        append(task);
+        version++;
+    }
+
+    /**
+     * Removes a task from the list. Its row is reclaimed by a later add.
+     *
+     * @param index The index of the task to remove
+     */
+    @Override
+    public void deleteTask(int index) {
+        checkIndex(index);
+        forget(order[index]);
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        for (int i = index; i < size; i++) {
+            positions[order[i]] = i;
+        }
+        version++;
+    }
+
+    /**
+     * Removes several tasks from the list in one pass.
+     *
+     * @param indexes Zero-based indexes of the tasks to remove
+     * @return The number of tasks removed
+     */
+    @Override
+    public int deleteTasks(BitSet indexes) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            if (indexes.get(i)) {
+                forget(row);
+            } else {
+                positions[row] = kept;
+                order[kept++] = row;
+            }
+        }
+
+        int removed = size - kept;
+        size = kept;
+        version++;
+        return removed;
+    }
+
+    private void forget(int row) {
+        removeId(columns.ids[row]);
+        positions[row] = DELETED;
+        deletedRowCount++;
+    }
+
+    /**
+     * Gets a view of a task in the list.
+     *
+     * @param index The index of the task to get
+     * @return The task at the specified index
+     */
+    @Override
+    public Task getTask(int index) {
+        checkIndex(index);
+        return new TaskView(columns, order[index]);
+    }
+
+    /**
+     * Gets a view of a task by its ID.
+     *
+     * @param id The ID of the task
+     * @return The task, or null if no task has that ID
+     */
+    @Override
+    public Task getTaskById(long id) {
+        int row = findRow(id);
+        return row < 0 ? null : new TaskView(columns, row);
+    }
+
+    /**
+     * Finds where a task is in the list.
+     *
+     * @param id The ID of the task
+     * @return Zero-based index of the task, or -1 if no task has that ID
+     */
+    @Override
+    public int indexOf(long id) {
+        int row = findRow(id);
+        return row < 0 ? -1 : positions[row];
+    }
+
+    /**
+     * Gets the number of tasks in the list.
+     *
+     * @return The number of tasks
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the task list is empty.
+     *
+     * @return true if the list has no tasks, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets views of all tasks.
+     * A new view is made for every task, so this takes time in proportion to the size of the list.
+     *
+     * @return New list of all tasks, in list order
+     */
+    @Override
+    public ArrayList<Task> getTasks() {
+        ArrayList<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(new TaskView(columns, order[i]));
+        }
+        return tasks;
+    }
+
+    /**
+     * Gets the ID the next task added will get.
+     *
+     * @return The next ID
+     */
+    @Override
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Gets the version of the list, which changes whenever the list is modified.
+     * Callers must hold the lock on this list when reading it from another thread.
+     *
+     * @return The current version
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Marks a task as done.
+     *
+     * @param index The index of the task to mark as done
+     */
+    @Override
+    public void markTaskAsDone(int index) {
+        checkIndex(index);
+        columns.doneFlags.set(order[index]);
+        version++;
+    }
+
+    /**
+     * Marks a task as not done.
+     *
+     * @param index The index of the task to mark as not done
+     */
+    @Override
+    public void markTaskAsNotDone(int index) {
+        checkIndex(index);
+        columns.doneFlags.clear(order[index]);
+        version++;
+    }
+
+    /**
+     * Marks several tasks as done or not done.
+     *
+     * @param indexes Zero-based indexes of the tasks to change
+     * @param isDone true to mark the tasks as done, false to mark them as not done
+     */
+    @Override
+    public void markTasks(BitSet indexes, boolean isDone) {
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            columns.doneFlags.set(order[i], isDone);
+        }
+        version++;
+    }
+
+    /**
+     * Sorts tasks by their date/time (for deadline and event tasks).
+     * Tasks without times come first, then dated tasks from earliest to latest,
+     * then tasks whose time is free text such as "sunday".
+     */
+    @Override
+    public void sortByDate() {
+        sort(this::compareByDate, "date");
+    }
+
+    /**
+     * Sorts tasks alphabetically by description, ignoring case.
+     */
+    @Override
+    public void sortByDescription() {
+        String[] descriptions = new String[rowCount]; // Decoded once rather than on every comparison
+        for (int i = 0; i < size; i++) {
+            descriptions[order[i]] = columns.getDescription(order[i]);
+        }
+        sort(Comparator.comparing(row -> descriptions[row], String.CASE_INSENSITIVE_ORDER), "description");
+    }
+
+    /**
+     * Sorts tasks by type (todo, deadline, event).
+     */
+    @Override
+    public void sortByType() {
+        sort(Comparator.comparing(columns::getType), "type");
+    }
+
+    /**
+     * Finds tasks whose descriptions contain the keyword anywhere, ignoring case.
+     *
+     * @param keyword Keyword to search for
+     * @return Zero-based indexes of matching tasks, in list order
+     */
+    @Override
+    public ArrayList<Integer> findByKeyword(String keyword) {
+        FindEvent event = new FindEvent();
+        event.begin();
+        String lowerKeyword = keyword.toLowerCase();
+        ArrayList<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (columns.getDescription(order[i]).toLowerCase().contains(lowerKeyword)) {
+                matches.add(i);
+            }
+        }
+        commitFindEvent(event, FindEvent.CRITERIA_SUBSTRING, keyword, matches.size());
+        return matches;
+    }
+
+    /**
+     * Finds tasks whose descriptions contain any of a set of keywords.
+     *
+     * @param matcher Matcher built from the keywords
+     * @return Zero-based indexes of matching tasks, in list order
+     */
+    @Override
+    public ArrayList<Integer> findByKeywords(KeywordMatcher matcher) {
+        FindEvent event = new FindEvent();
+        event.begin();
+        ArrayList<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (matcher.matches(columns.getDescription(order[i]))) {
+                matches.add(i);
+            }
+        }
+        commitFindEvent(event, FindEvent.CRITERIA_ANY_KEYWORD, null, matches.size());
+        return matches;
+    }
+
+    /**
+     * Finds tasks whose descriptions contain every word of the query as a whole word, ignoring case.
+     *
+     * @param words One or more words to search for
+     * @return Zero-based indexes of matching tasks, in list order
+     */
+    @Override
+    public ArrayList<Integer> findByWords(String words) {
+        FindEvent event = new FindEvent();
+        event.begin();
+        ArrayList<String> queryWords = KeywordIndex.tokenize(words);
+        ArrayList<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < size && !queryWords.isEmpty(); i++) {
+            if (KeywordIndex.tokenize(columns.getDescription(order[i])).containsAll(queryWords)) {
+                matches.add(i);
+            }
+        }
+        commitFindEvent(event, FindEvent.CRITERIA_WORDS, words, matches.size());
+        return matches;
+    }
+
+    private void commitFindEvent(FindEvent event, String criteria, String query, int resultSize) {
+        if (event.shouldCommit()) {
+            event.criteria = criteria;
+            event.query = query;
+            event.taskCount = size;
+            event.resultSize = resultSize;
+            event.commit();
+        }
+    }
+
+    /**
+     * Copies a task's fields into a new row at the end of the list. Capacity must already be available.
+     */
+    private void append(Task task) {
+        if (task.getId() == Task.NO_ID || findRow(task.getId()) >= 0) {
+            task.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+
+        int row = rowCount++;
+        columns.ids[row] = task.getId();
+        columns.typeCodes[row] = encodeType(task.getType());
+        columns.doneFlags.set(row, task.isDone());
+        columns.setTime(row, task.getTime(), task.getEpochMinutes());
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        columns.descriptionStarts[row] = columns.store(description);
+        columns.descriptionLengths[row] = description.length;
+
+        order[size] = row;
+        positions[row] = size;
+        size++;
+        putId(row);
+    }
+
+    private byte encodeType(String type) {
+        int code = columns.types.indexOf(type);
+        if (code < 0) {
+            if (columns.types.size() == MAX_TYPES) {
+                throw new IllegalStateException("Too many task types: " + type);
+            }
+            columns.types.add(type);
+            code = columns.types.size() - 1;
+        }
+        return (byte) code;
+    }
+
+    private int compareByDate(int row1, int row2) {
+        int rank1 = getDateRank(row1);
+        int rank2 = getDateRank(row2);
+        if (rank1 != rank2) {
+            return Integer.compare(rank1, rank2);
+        }
+        if (rank1 == 1) {
+            return Long.compare(columns.epochMinutes[row1], columns.epochMinutes[row2]);
+        }
+        return columns.getTime(row1).compareTo(columns.getTime(row2));
+    }
+
+    private int getDateRank(int row) {
+        if (columns.timeLengths[row] == 0) {
+            return 0;
+        }
+        return columns.epochMinutes[row] != Task.NO_DATE ? 1 : 2;
+    }
+
+    /**
+     * Sorts the list order by a comparator over rows, breaking ties by ID like {@link TaskList}.
+     */
+    private void sort(Comparator<Integer> rowOrder, String criteria) {
+        SortEvent event = new SortEvent();
+        event.begin();
+        Integer[] rows = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = order[i];
+        }
+        long[] ids = columns.ids;
+        Arrays.sort(rows, rowOrder.thenComparingLong(row -> ids[row]));
+        for (int i = 0; i < size; i++) {
+            order[i] = rows[i];
+            positions[rows[i]] = i;
+        }
+        version++;
+
+        if (event.shouldCommit()) {
+            event.criteria = criteria;
+            event.taskCount = size;
+            event.isViewReused = false;
+            event.commit();
+        }
+    }
+
+    /**
+     * Copies the rows of the tasks still in the list into new columns, in list order,
+     * leaving out the rows and text of deleted tasks. Views made before keep the old columns.
+     */
+    private void compact() {
+        int textLength = 0;
+        for (int i = 0; i < size; i++) {
+            textLength += columns.descriptionLengths[order[i]] + Math.max(columns.timeLengths[order[i]], 0);
+        }
+        Columns compacted = new Columns(columns.types, Math.max(size * 2, INITIAL_CAPACITY),
+                Math.max(textLength * 2, INITIAL_CAPACITY * 32));
+        int[] newOrder = new int[compacted.ids.length];
+        int[] newPositions = new int[compacted.ids.length];
+        for (int i = 0; i < size; i++) {
+            compacted.copyRow(columns, order[i], i);
+            newOrder[i] = i;
+            newPositions[i] = i;
+        }
+
+        columns = compacted;
+        order = newOrder;
+        positions = newPositions;
+        rowCount = size;
+        deletedRowCount = 0;
+        idSlots = new int[getTableSize(order.length)];
+        for (int row = 0; row < rowCount; row++) {
+            putId(row);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= order.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, order.length + (order.length >> 1));
+        columns.grow(newCapacity);
+        order = Arrays.copyOf(order, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+        if (newCapacity * 2 > idSlots.length) {
+            idSlots = new int[getTableSize(newCapacity)];
+            for (int row = 0; row < rowCount; row++) {
+                if (positions[row] != DELETED) {
+                    putId(row);
+                }
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    // The ID table uses linear probing. It has at least twice as many slots as there are rows,
+    // and its size is a power of two.
+
+    /**
+     * Gets the smallest power of two that is at least twice the number of rows.
+     */
+    private static int getTableSize(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int hash(long id) {
+        int h = Long.hashCode(id) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Finds the slot holding an ID's row, or the empty slot where it would go.
+     */
+    private int findSlot(long id) {
+        int mask = idSlots.length - 1;
+        int slot = hash(id) & mask;
+        while (idSlots[slot] != EMPTY_SLOT && columns.ids[idSlots[slot] - 1] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int findRow(long id) {
+        return idSlots[findSlot(id)] - 1;
+    }
+
+    private void putId(int row) {
+        idSlots[findSlot(columns.ids[row])] = row + 1;
+    }
+
+    /**
+     * Removes an ID from the table, moving later entries of its probe run back so they can still be found.
+     */
+    private void removeId(long id) {
+        int mask = idSlots.length - 1;
+        int slot = findSlot(id);
+        if (idSlots[slot] == EMPTY_SLOT) {
+            return;
+        }
+
+        idSlots[slot] = EMPTY_SLOT;
+        for (int next = (slot + 1) & mask; idSlots[next] != EMPTY_SLOT; next = (next + 1) & mask) {
+            int home = hash(columns.ids[idSlots[next] - 1]) & mask;
+            // Move the entry back unless its home lies cyclically in (slot, next]
+            boolean isHomeBetween = slot <= next ? slot < home && home <= next : slot < home || home <= next;
+            if (!isHomeBetween) {
+                idSlots[slot] = idSlots[next];
+                idSlots[next] = EMPTY_SLOT;
+                slot = next;
+            }
+        }
+    }
+
+    /**
+     * The fields of every task, one array element per row.
+     * Arrays are replaced when they grow, but a row never moves within one Columns.
+     */
+    private static final class Columns {
+        private final ArrayList<String> types; // Type strings, indexed by type code
+        private byte[] typeCodes;
+        private final BitSet doneFlags = new BitSet();
+        private long[] epochMinutes;
+        private long[] ids;
+        private int[] descriptionStarts;
+        private int[] descriptionLengths;
+        private int[] timeStarts;
+        private int[] timeLengths; // DERIVED_TIME if rebuilt from the epoch minutes
+
+        // UTF-8 text of descriptions and free-text times
+        private byte[] text;
+        private int textLength;
+
+        Columns(ArrayList<String> types, int capacity, int textCapacity) {
+            this.types = types;
+            typeCodes = new byte[capacity];
+            epochMinutes = new long[capacity];
+            ids = new long[capacity];
+            descriptionStarts = new int[capacity];
+            descriptionLengths = new int[capacity];
+            timeStarts = new int[capacity];
+            timeLengths = new int[capacity];
+            text = new byte[textCapacity];
+        }
+
+        void grow(int capacity) {
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            descriptionStarts = Arrays.copyOf(descriptionStarts, capacity);
+            descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+            timeStarts = Arrays.copyOf(timeStarts, capacity);
+            timeLengths = Arrays.copyOf(timeLengths, capacity);
+        }
+
+        /**
+         * Copies a row of other columns into a row of these, along with its text.
+         */
+        void copyRow(Columns from, int fromRow, int row) {
+            typeCodes[row] = from.typeCodes[fromRow];
+            doneFlags.set(row, from.doneFlags.get(fromRow));
+            epochMinutes[row] = from.epochMinutes[fromRow];
+            ids[row] = from.ids[fromRow];
+            descriptionStarts[row] = store(from.text, from.descriptionStarts[fromRow],
+                    from.descriptionLengths[fromRow]);
+            descriptionLengths[row] = from.descriptionLengths[fromRow];
+            timeLengths[row] = from.timeLengths[fromRow];
+            if (timeLengths[row] > 0) {
+                timeStarts[row] = store(from.text, from.timeStarts[fromRow], timeLengths[row]);
+            }
+        }
+
+        void setTime(int row, String time, long rowEpochMinutes) {
+            epochMinutes[row] = rowEpochMinutes;
+            if (rowEpochMinutes != Task.NO_DATE && Parser.fromEpochMinutes(rowEpochMinutes).equals(time)) {
+                timeLengths[row] = DERIVED_TIME;
+            } else {
+                byte[] bytes = time.getBytes(StandardCharsets.UTF_8);
+                timeStarts[row] = store(bytes);
+                timeLengths[row] = bytes.length;
+            }
+        }
+
+        int store(byte[] bytes) {
+            return store(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Appends bytes to the text store.
+         *
+         * @return Where the bytes start in the store
+         */
+        int store(byte[] bytes, int start, int length) {
+            if (textLength + length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+            }
+            System.arraycopy(bytes, start, text, textLength, length);
+            textLength += length;
+            return textLength - length;
+        }
+
+        String getType(int row) {
+            return types.get(typeCodes[row] & 0xFF);
+        }
+
+        String getDescription(int row) {
+            return new String(text, descriptionStarts[row], descriptionLengths[row], StandardCharsets.UTF_8);
+        }
+
+        String getTime(int row) {
+            if (timeLengths[row] == DERIVED_TIME) {
+                return Parser.fromEpochMinutes(epochMinutes[row]);
+            }
+            return new String(text, timeStarts[row], timeLengths[row], StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A task that reads and writes one row of the columns instead of fields of its own.
+     */
+    private static final class TaskView extends Task {
+        private final Columns columns;
+        private final int row;
+
+        TaskView(Columns columns, int row) {
+            super(null, null);
+            this.columns = columns;
+            this.row = row;
+        }
+
+        @Override
+        public String getDescription() {
+            return columns.getDescription(row);
+        }
+
+        @Override
+        public boolean isDone() {
+            return columns.doneFlags.get(row);
+        }
+
+        @Override
+        public String getType() {
+            return columns.getType(row);
+        }
+
+        @Override
+        public String getTime() {
+            return columns.getTime(row);
+        }
+
+        @Override
+        public long getEpochMinutes() {
+            return columns.epochMinutes[row];
+        }
+
+        @Override
+        public void setTime(String time, long epochMinutes) {
+            columns.setTime(row, time, epochMinutes);
+        }
+
+        @Override
+        public long getId() {
+            return columns.ids[row];
+        }
+
+        @Override
+        void setId(long id) {
+            throw new UnsupportedOperationException("IDs of tasks in a columnar list can't be changed");
+        }
+
+        @Override
+        public void markAsDone() {
+            columns.doneFlags.set(row);
+        }
+
+        @Override
+        public void markAsNotDone() {
+            columns.doneFlags.clear(row);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package luke;
+
+/**
+ * A command the user can type, looked up by its first word.
+ */
+@FunctionalInterface
+public interface Command {
+    /**
+     * Runs the command.
+     *
+     * @param input The whole command as typed
+     * @param out Where to show the response
+     * @return true if the program should exit, false otherwise
+     * @throws LukeException If the command is invalid or saving fails
+     */
+    boolean execute(String input, OutputSink out) throws LukeException;
+}
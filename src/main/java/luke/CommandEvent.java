@@ -0,0 +1,33 @@
+package luke;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one command, from the moment it is dispatched until its output is shown.
+ * Only filled in and committed while a recording has the event enabled.
+ */
+@Name("luke.Command")
+@Label("Command")
+@Category("Luke")
+@Description("A command entered by the user")
+class CommandEvent extends Event {
+    static final String OUTCOME_OK = "ok";
+    static final String OUTCOME_EXIT = "exit";
+    static final String OUTCOME_REJECTED = "rejected"; // The input was invalid and an error was shown
+    static final String OUTCOME_FAILED = "failed"; // An unexpected exception escaped
+
+    @Label("Command")
+    @Description("First word of the input")
+    String command;
+
+    @Label("Task Count")
+    @Description("Number of tasks after the command ran")
+    int taskCount;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,34 @@
+package luke;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for searching the task list.
+ * Only filled in and committed while a recording has the event enabled.
+ */
+@Name("luke.Find")
+@Label("Find")
+@Category("Luke")
+@Description("The task list was searched")
+class FindEvent extends Event {
+    static final String CRITERIA_SUBSTRING = "substring";
+    static final String CRITERIA_WORDS = "words";
+    static final String CRITERIA_ANY_KEYWORD = "any keyword";
+
+    @Label("Criteria")
+    String criteria;
+
+    @Label("Query")
+    @Description("Text searched for, if a single query was given")
+    String query;
+
+    @Label("Task Count")
+    int taskCount;
+
+    @Label("Result Size")
+    int resultSize;
+}
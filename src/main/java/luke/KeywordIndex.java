@@ -0,0 +1,118 @@
+package luke;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Maps each word in task descriptions to the tasks containing it.
+ * Words are runs of letters and digits, compared in lower case.
+ */
+public class KeywordIndex {
+    private final HashMap<String, Set<Task>> postings = new HashMap<>();
+
+    /**
+     * Adds a task's words to the index.
+     *
+     * @param task The task to add
+     */
+    public void add(Task task) {
+        for (String word : tokenize(task.getDescription())) {
+            Set<Task> tasks = postings.get(word);
+            if (tasks == null) {
+                // Most words appear in only one task, so start with a cheap immutable set
+                postings.put(word, Collections.singleton(task));
+            } else if (tasks.size() == 1) {
+                Set<Task> grown = new HashSet<>(tasks);
+                grown.add(task);
+                postings.put(word, grown);
+            } else {
+                tasks.add(task);
+            }
+        }
+    }
+
+    /**
+     * Removes a task's words from the index.
+     *
+     * @param task The task to remove
+     */
+    public void remove(Task task) {
+        for (String word : tokenize(task.getDescription())) {
+            Set<Task> tasks = postings.get(word);
+            if (tasks == null || !tasks.contains(task)) {
+                continue;
+            }
+            if (tasks.size() == 1) {
+                postings.remove(word);
+            } else {
+                tasks.remove(task);
+            }
+        }
+    }
+
+    /**
+     * Finds tasks whose descriptions contain every word of the query as a whole word.
+     *
+     * @param query One or more words
+     * @return Matching tasks, in no particular order
+     */
+    public ArrayList<Task> findAll(String query) {
+        ArrayList<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Walk the shortest posting list and check the others
+        Set<Task> smallest = null;
+        for (String word : words) {
+            Set<Task> tasks = postings.getOrDefault(word, Collections.emptySet());
+            if (smallest == null || tasks.size() < smallest.size()) {
+                smallest = tasks;
+            }
+        }
+
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Task task : smallest) {
+            if (containsAll(words, task)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    private boolean containsAll(ArrayList<String> words, Task task) {
+        for (String word : words) {
+            if (!postings.get(word).contains(task)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits text into lower-case words.
+     *
+     * @param text Text to split
+     * @return Distinct words in the text
+     */
+    static ArrayList<String> tokenize(String text) {
+        ArrayList<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase();
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
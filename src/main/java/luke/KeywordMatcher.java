@@ -0,0 +1,240 @@
+package luke;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Checks text against many keywords at once, ignoring case.
+ * Uses an Aho-Corasick automaton, so each text is scanned once no matter
+ * how many keywords there are. Text is lower-cased one character at a time.
+ *
+ * <p>Matches exactly when {@code text.toLowerCase().contains(keyword.toLowerCase())} does.
+ * A few characters lower-case differently on their own than inside a string: the dotted
+ * capital I (U+0130) becomes an i and a combining dot, the capital sigma (U+03A3) becomes a
+ * final sigma at the end of a word, and surrogate pairs are only lower-cased as a pair.
+ * Texts containing one of those, and every text when the default locale has its own casing
+ * rules (Turkish, Azerbaijani, Lithuanian), are lower-cased as a whole and searched for each
+ * keyword instead.</p>
+ */
+public class KeywordMatcher {
+    private static final int ROOT = 0;
+    private static final int ASCII_SIZE = 128;
+
+    // The only chars String.toLowerCase handles differently from Character.toLowerCase, besides surrogates
+    private static final char DOTTED_CAPITAL_I = '\u0130'; // Becomes an i and a combining dot
+    private static final char CAPITAL_SIGMA = '\u03A3'; // Becomes a final sigma at the end of a word
+
+    // Complete transition table for ASCII characters, indexed by state * ASCII_SIZE + character
+    private final int[] asciiTransitions;
+
+    // Trie edges per state, kept as parallel sorted arrays of characters and target states
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failureLinks;
+    private final boolean[] isMatch;
+    private final boolean isEmptyKeywordPresent;
+    private final String[] lowerKeywords; // For texts that can't be lower-cased one char at a time
+    private final boolean isLocaleSpecific; // Default locale lower-cases some letters its own way
+
+    /**
+     * Builds a matcher for a set of keywords.
+     *
+     * @param keywords Keywords to look for; case is ignored
+     */
+    public KeywordMatcher(String... keywords) {
+        boolean hasEmpty = false;
+        ArrayList<HashMap<Character, Integer>> trie = new ArrayList<>();
+        ArrayList<Boolean> isKeywordEnd = new ArrayList<>();
+        addState(trie, isKeywordEnd);
+        lowerKeywords = new String[keywords.length];
+        String language = Locale.getDefault().getLanguage();
+        isLocaleSpecific = language.equals("tr") || language.equals("az") || language.equals("lt");
+
+        for (int k = 0; k < keywords.length; k++) {
+            String lowerKeyword = keywords[k].toLowerCase();
+            lowerKeywords[k] = lowerKeyword;
+            if (lowerKeyword.isEmpty()) {
+                hasEmpty = true; // Matches everything, just like String.contains("")
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < lowerKeyword.length(); i++) {
+                char c = lowerKeyword.charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = addState(trie, isKeywordEnd);
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            isKeywordEnd.set(state, true);
+        }
+        isEmptyKeywordPresent = hasEmpty;
+
+        int stateCount = trie.size();
+        transitionChars = new char[stateCount][];
+        transitionTargets = new int[stateCount][];
+        failureLinks = new int[stateCount];
+        isMatch = new boolean[stateCount];
+        asciiTransitions = new int[stateCount * ASCII_SIZE];
+        for (int state = 0; state < stateCount; state++) {
+            freezeTransitions(state, trie.get(state));
+            isMatch[state] = isKeywordEnd.get(state);
+        }
+        buildFailureLinks();
+    }
+
+    /**
+     * Checks whether the text contains any of the keywords.
+     * No lower-case copy of the text is made, except for the few texts described above.
+     *
+     * @param text Text to check
+     * @return true if at least one keyword occurs in the text
+     */
+    public boolean matches(String text) {
+        if (isEmptyKeywordPresent) {
+            return true;
+        }
+        if (isLocaleSpecific) {
+            return matchesLowerCased(text);
+        }
+
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= ASCII_SIZE) {
+                if (c == DOTTED_CAPITAL_I || c == CAPITAL_SIGMA || Character.isSurrogate(c)) {
+                    return matchesLowerCased(text);
+                }
+                c = Character.toLowerCase(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+
+            if (c < ASCII_SIZE) {
+                state = asciiTransitions[state * ASCII_SIZE + c];
+            } else {
+                state = follow(state, c);
+            }
+            if (isMatch[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the text the slow way, by lower-casing all of it and searching for each keyword.
+     */
+    private boolean matchesLowerCased(String text) {
+        String lowerText = text.toLowerCase();
+        for (String lowerKeyword : lowerKeywords) {
+            if (lowerText.contains(lowerKeyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follows a character from a state, falling back along failure links as needed.
+     */
+    private int follow(int state, char c) {
+        int next = step(state, c);
+        while (next < 0 && state != ROOT) {
+            state = failureLinks[state];
+            next = step(state, c);
+        }
+        return next < 0 ? ROOT : next;
+    }
+
+    private static int addState(ArrayList<HashMap<Character, Integer>> trie, ArrayList<Boolean> isKeywordEnd) {
+        trie.add(new HashMap<>());
+        isKeywordEnd.add(false);
+        return trie.size() - 1;
+    }
+
+    /**
+     * Turns a trie node's map into sorted arrays for fast lookups while matching.
+     */
+    private void freezeTransitions(int state, HashMap<Character, Integer> edges) {
+        char[] chars = new char[edges.size()];
+        int i = 0;
+        for (char c : edges.keySet()) {
+            chars[i++] = c;
+        }
+        Arrays.sort(chars);
+
+        int[] targets = new int[chars.length];
+        for (int j = 0; j < chars.length; j++) {
+            targets[j] = edges.get(chars[j]);
+        }
+        transitionChars[state] = chars;
+        transitionTargets[state] = targets;
+    }
+
+    /**
+     * Links every state to the longest proper suffix that is also in the trie,
+     * visiting states in breadth-first order. A state also matches if its suffix does.
+     * The ASCII transition table is filled in along the way, since a state's missing
+     * transitions are the same as its failure link's.
+     */
+    private void buildFailureLinks() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[ROOT]) {
+            queue.add(child);
+        }
+        fillAsciiTransitions(ROOT);
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            fillAsciiTransitions(state);
+            char[] chars = transitionChars[state];
+            int[] targets = transitionTargets[state];
+
+            for (int i = 0; i < chars.length; i++) {
+                int child = targets[i];
+                int fallback = failureLinks[state];
+                int next = step(fallback, chars[i]);
+                while (next < 0 && fallback != ROOT) {
+                    fallback = failureLinks[fallback];
+                    next = step(fallback, chars[i]);
+                }
+                int link = next < 0 || next == child ? ROOT : next;
+                failureLinks[child] = link;
+                if (isMatch[link]) {
+                    isMatch[child] = true;
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Fills in a state's ASCII transitions. Its failure link's row must already be filled in.
+     */
+    private void fillAsciiTransitions(int state) {
+        int row = state * ASCII_SIZE;
+        for (char c = 0; c < ASCII_SIZE; c++) {
+            int next = step(state, c);
+            if (next >= 0) {
+                asciiTransitions[row + c] = next;
+            } else if (state != ROOT) {
+                asciiTransitions[row + c] = asciiTransitions[failureLinks[state] * ASCII_SIZE + c];
+            }
+        }
+    }
+
+    /**
+     * Follows the trie edge for a character.
+     *
+     * @return The next state, or -1 if there is no such transition
+     */
+    private int step(int state, char c) {
+        int i = Arrays.binarySearch(transitionChars[state], c);
+        return i < 0 ? -1 : transitionTargets[state][i];
+    }
+}
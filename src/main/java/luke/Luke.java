@@ -1,42 +1,167 @@
 package luke;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
 /**
  * Main class for the Luke task manager application.
  * Handles the command loop and processing of user inputs.
+ * Each command is looked up by its first word and writes its response to an
+ * {@link OutputSink}, so the console and the GUI share the same handlers.
  */
 public class Luke {
-    // Constants for command prefixes to avoid magic strings
+    // Words that start each command, to avoid magic strings
     private static final String COMMAND_BYE = "bye";
-    private static final String COMMAND_LIST = "list";
-    private static final String COMMAND_MARK = "mark ";
-    private static final String COMMAND_UNMARK = "unmark ";
-    private static final String COMMAND_TODO = "todo ";
-    private static final String COMMAND_DEADLINE = "deadline ";
-    private static final String COMMAND_EVENT = "event ";
-    private static final String COMMAND_DELETE = "delete ";
-    private static final String COMMAND_FIND = "find ";
-    private static final String COMMAND_SORT = "sort ";
+    private static final String COMMAND_LIST = "list"; // Also "list 200-400" or "list page 3"
+    private static final String COMMAND_MARK = "mark";
+    private static final String COMMAND_UNMARK = "unmark";
+    private static final String COMMAND_TODO = "todo";
+    private static final String COMMAND_DEADLINE = "deadline";
+    private static final String COMMAND_EVENT = "event";
+    private static final String COMMAND_DELETE = "delete";
+    private static final String COMMAND_FIND = "find";
+    private static final String COMMAND_SORT = "sort";
+    private static final String COMMAND_STATS = "stats"; // Also "stats json"
+    private static final String STATS_JSON = "json";
+    private static final String COMMAND_LATENCY_PREFIX = "command.";
+    private static final String FIND_WORDS_FLAG = "/w "; // "find /w WORDS" matches whole words only
+    private static final String FIND_OR_SEPARATOR = " /or "; // "find A /or B" matches either keyword
+    private static final String FIND_LIMIT_FLAG = " --limit "; // "find A --limit 50" shows at most 50 matches
+
+    private static final int LIST_PAGE_SIZE = 100;
+    private static final int GUI_MAX_TASK_LINES = 100; // Longer GUI lists are cut short with a hint
+    private static final int SCRIPT_MAX_TASK_LINES = Integer.MAX_VALUE; // Batch runs show every task
+
+    // File to write the stats to as JSON when Luke shuts down
+    private static final String STATS_FILE_PROPERTY = "luke.stats.file";
+
+    // File to write a Flight Recorder recording to when Luke shuts down, using the bundled
+    // settings on top of the JDK's default profile
+    private static final String RECORDING_FILE_PROPERTY = "luke.jfr.file";
+    private static final String RECORDING_SETTINGS = "/luke.jfc";
+    private static final String RECORDING_BASE_SETTINGS = "default";
+
+    // How long changes may stay unsaved; 0 saves synchronously after every change
+    private static final String FLUSH_INTERVAL_PROPERTY = "luke.persistence.flushMillis";
+
+    // Set to true to keep tasks in a ColumnarTaskList, which needs less memory for very large lists
+    private static final String COLUMNAR_PROPERTY = "luke.tasks.columnar";
+
+    // "--script FILE" runs commands from FILE, or from standard input if FILE is "-"
+    private static final String SCRIPT_FLAG = "--script";
+    private static final String SCRIPT_STDIN = "-";
+    private static final int SCRIPT_OUTPUT_BUFFER_SIZE = 64 * 1024;
 
     private Storage storage;
     private TaskList tasks;
+    private BackgroundSaver saver; // Only set when saving in the background
+    private Recording recording; // Only set when the luke.jfr.file property is set
     private Ui ui;
-    private StringBuilder responseBuilder; // For GUI responses
+    private final HashMap<String, Command> commands = new HashMap<>(); // Keyed by the first word of the input
+    private boolean isSavingDeferred; // Set while running a script, which saves once at the end
+    private boolean hasDeferredChanges;
 
     /**
-     * Creates a new Luke task manager instance.
+     * Creates a new Luke task manager instance and loads its tasks.
      *
      * @param filePath Path to the save file
      */
     public Luke(String filePath) {
+        this(filePath, true);
+    }
+
+    /**
+     * Creates a new Luke task manager instance.
+     * If the tasks are not loaded now, the list starts empty until {@link #loadTasks()} is called.
+     *
+     * @param filePath Path to the save file
+     * @param shouldLoadNow Whether to load the save file before returning
+     */
+    public Luke(String filePath, boolean shouldLoadNow) {
         ui = new Ui();
+        startRecording();
         storage = new Storage(filePath);
+        tasks = new TaskList();
+        registerCommands();
+
+        if (shouldLoadNow) {
+            try {
+                loadTasks();
+            } catch (LukeException e) {
+                ui.showLoadingError();
+                ui.flush(); // Scripts write through their own output, so nothing else flushes this
+            }
+        }
+    }
+
+    /**
+     * Starts a Flight Recorder recording if the luke.jfr.file property names a file to write it to.
+     * The recording is written out by {@link #shutdown()}.
+     */
+    private void startRecording() {
+        String recordingFile = System.getProperty(RECORDING_FILE_PROPERTY);
+        if (recordingFile == null) {
+            return;
+        }
+
+        InputStream settingsFile = Luke.class.getResourceAsStream(RECORDING_SETTINGS);
+        if (settingsFile == null) {
+            ui.showError("Could not find the recording settings " + RECORDING_SETTINGS);
+            ui.flush();
+            return;
+        }
+
+        try (Reader reader = new InputStreamReader(settingsFile, StandardCharsets.UTF_8)) {
+            Map<String, String> settings = new HashMap<>(
+                    Configuration.getConfiguration(RECORDING_BASE_SETTINGS).getSettings());
+            settings.putAll(Configuration.create(reader).getSettings());
+            recording = new Recording(settings);
+            recording.setDestination(Paths.get(recordingFile));
+            recording.start();
+        } catch (IOException | ParseException e) {
+            ui.showError("Could not start recording to " + recordingFile);
+            ui.flush();
+        }
+    }
+
+    /**
+     * Loads the tasks from the save file and starts saving changes.
+     * Must be called once, before any command is processed, unless the tasks were loaded on creation.
+     * If loading fails, Luke carries on with an empty list.
+     *
+     * @return Number of tasks loaded
+     * @throws LukeException If the save file can't be read
+     */
+    public int loadTasks() throws LukeException {
         try {
-            tasks = new TaskList(storage.load());
-        } catch (LukeException e) {
-            ui.showLoadingError();
-            tasks = new TaskList();
+            ArrayList<Task> loaded = storage.load();
+            tasks = Boolean.getBoolean(COLUMNAR_PROPERTY)
+                    ? new ColumnarTaskList(loaded, storage.getNextId())
+                    : new TaskList(loaded, storage.getNextId());
+            return tasks.size();
+        } finally {
+            long flushIntervalMillis = Long.getLong(FLUSH_INTERVAL_PROPERTY, 0);
+            if (flushIntervalMillis > 0) {
+                saver = new BackgroundSaver(storage, tasks, flushIntervalMillis);
+            }
         }
-        responseBuilder = new StringBuilder();
     }
 
     /**
@@ -51,443 +176,456 @@ public class Luke {
             ui.showLine();
 
             try {
-                isExit = processCommand(input);
+                synchronized (tasks) {
+                    isExit = execute(input, ui);
+                }
             } catch (LukeException e) {
                 ui.showError(e.getMessage());
             }
 
             ui.showLine();
+            ui.flush();
         }
     }
 
     /**
-     * Returns a welcome message when the app starts.
+     * Runs commands from a script file, or from standard input if the file is "-".
+     * Commands are applied back to back through the same path as the GUI, without
+     * prompts or separator lines. Output is buffered, changes are saved once at the end,
+     * and the number of commands per second is reported on standard error.
+     *
+     * @param source Path of the script, or "-" for standard input
      */
-    public String getWelcomeMessage() {
-        return "Hello! I'm Luke\nWhat can I do for you today?";
+    public void runScript(String source) {
+        Writer output = new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), SCRIPT_OUTPUT_BUFFER_SIZE);
+        try (BufferedReader script = source.equals(SCRIPT_STDIN)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            runScript(script, output);
+        } catch (IOException e) {
+            ui.showError("Could not read the script " + source);
+            ui.flush();
+        }
     }
 
     /**
-     * Processes a command and returns the response as a string.
-     * This method is used by the GUI.
+     * Runs every command in a script until its end or a "bye".
      *
-     * @param input The user input command
-     * @return The response from Luke
+     * @param script Commands, one per line; blank lines are skipped
+     * @param output Where responses are written
+     * @throws IOException If the script can't be read or the output can't be written
      */
-    public String getResponse(String input) {
-        responseBuilder = new StringBuilder();
+    private void runScript(BufferedReader script, Writer output) throws IOException {
+        long startTime = System.nanoTime();
+        long commandCount = 0;
+        isSavingDeferred = true;
 
         try {
-            processCommandForGui(input);
+            boolean isExit = false;
+            String input;
+            while (!isExit && (input = script.readLine()) != null) {
+                if (input.trim().isEmpty()) {
+                    continue;
+                }
+                commandCount++;
+                TextOutput response = new TextOutput(SCRIPT_MAX_TASK_LINES);
+                try {
+                    synchronized (tasks) {
+                        isExit = execute(input, response);
+                    }
+                } catch (LukeException e) {
+                    response.showMessage(e.getMessage());
+                }
+                output.append(response.toString()).append('\n');
+            }
+
+            synchronized (tasks) {
+                isSavingDeferred = false;
+                flushPendingChanges();
+            }
         } catch (LukeException e) {
-            return e.getMessage();
+            output.append(e.getMessage()).append('\n');
+        } finally {
+            isSavingDeferred = false;
+            output.flush();
         }
 
-        return responseBuilder.toString();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.err.printf("Ran %d commands in %.3f s (%.0f commands/s)%n",
+                commandCount, seconds, commandCount / Math.max(seconds, 1e-9));
     }
 
     /**
-     * Processes a command for GUI and adds the response to responseBuilder.
-     *
-     * @param input The user input command
-     * @return true if the program should exit, false otherwise
-     * @throws LukeException If command processing fails
+     * Saves any changes that are still pending and stops background saving.
+     * Also writes the stats to the file named by the luke.stats.file property, and the
+     * Flight Recorder recording to the file named by the luke.jfr.file property, if set.
+     * Must be called before the application exits.
      */
-    private boolean processCommandForGui(String input) throws LukeException {
-        // Guard clause for null or empty input
-        if (input == null || input.trim().isEmpty()) {
-            throw new LukeException("Please enter a command");
-        }
-
-        if (input.equals(COMMAND_BYE)) {
-            responseBuilder.append("Goodbye! Hope to see you again soon!");
-            return true;
-        }
-
-        if (input.equals(COMMAND_LIST)) {
-            listTasksForGui();
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_MARK) || input.startsWith(COMMAND_UNMARK)) {
-            handleMarkCommandForGui(input);
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_TODO)) {
-            handleTodoCommandForGui(input);
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_DEADLINE)) {
-            handleDeadlineCommandForGui(input);
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_EVENT)) {
-            handleEventCommandForGui(input);
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_DELETE)) {
-            handleDeleteCommandForGui(input);
-            return false;
+    public void shutdown() {
+        String statsFile = System.getProperty(STATS_FILE_PROPERTY);
+        if (statsFile != null) {
+            try {
+                Files.writeString(Paths.get(statsFile), Stats.toJson() + "\n", StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                ui.showError("Could not write the stats to " + statsFile);
+                ui.flush();
+            }
         }
 
-        if (input.startsWith(COMMAND_FIND)) {
-            handleFindCommandForGui(input);
-            return false;
+        if (saver != null) {
+            try {
+                saver.close();
+            } catch (LukeException e) {
+                ui.showSavingError();
+                ui.flush();
+            }
         }
 
-        if (input.startsWith(COMMAND_SORT)) {
-            handleSortCommandForGui(input);
-            return false;
+        if (recording != null) {
+            recording.stop(); // Also writes the recording to its file
+            recording.close();
         }
-
-        responseBuilder.append("I don't know what that means! Try again.");
-        return false;
     }
 
     /**
-     * Lists all tasks and appends to responseBuilder.
+     * Returns a welcome message when the app starts.
      */
-    private void listTasksForGui() {
-        if (tasks.isEmpty()) {
-            responseBuilder.append("No tasks in your list!");
-            return;
-        }
+    public String getWelcomeMessage() {
+        return "Hello! I'm Luke\nWhat can I do for you today?";
+    }
 
-        responseBuilder.append("Here are the tasks in your list:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.getTask(i);
-            responseBuilder.append(i + 1).append(".").append(task.toString()).append("\n");
-        }
+    /**
+     * Processes a command and returns the response as a string.
+     *
+     * @param input The user input command
+     * @return The response from Luke
+     */
+    public String getResponse(String input) {
+        return respond(input).toString();
     }
 
     /**
-     * Handles mark command for GUI.
+     * Processes a command and returns its response along with whether it was bye.
+     * This method is used by the GUI.
+     *
+     * @param input The user input command
+     * @return The response from Luke; an invalid command's response is just the error message
      */
-    private void handleMarkCommandForGui(String input) throws LukeException {
-        if (input.length() <= 5) {
-            throw new LukeException("Please indicate which task to mark! Try again.");
-        }
+    public TextOutput respond(String input) {
+        TextOutput response = new TextOutput(GUI_MAX_TASK_LINES);
 
         try {
-            int taskNum = extractTaskNumber(input);
-            validateTaskIndex(taskNum);
-
-            boolean isMarkCommand = input.startsWith(COMMAND_MARK);
-            if (isMarkCommand) {
-                tasks.markTaskAsDone(taskNum);
-                responseBuilder.append("Nice! I've marked this task as done:\n");
-            } else {
-                tasks.markTaskAsNotDone(taskNum);
-                responseBuilder.append("OK, I've marked this task as not done yet:\n");
+            synchronized (tasks) {
+                response.setExit(execute(input, response));
             }
-            responseBuilder.append(tasks.getTask(taskNum));
+        } catch (LukeException e) {
+            TextOutput error = new TextOutput(GUI_MAX_TASK_LINES);
+            error.showMessage(e.getMessage());
+            return error;
+        }
 
-            saveTasksToStorage();
+        return response;
+    }
 
-        } catch (NumberFormatException e) {
-            throw new LukeException("Please give me a valid task number! Try again.");
-        }
+    /**
+     * Registers every command under the word that starts it.
+     */
+    private void registerCommands() {
+        register(COMMAND_BYE, this::handleByeCommand);
+        register(COMMAND_LIST, this::handleListCommand);
+        register(COMMAND_MARK, (input, out) -> handleMarkCommand(input, out, true));
+        register(COMMAND_UNMARK, (input, out) -> handleMarkCommand(input, out, false));
+        register(COMMAND_TODO, this::handleTodoCommand);
+        register(COMMAND_DEADLINE, this::handleDeadlineCommand);
+        register(COMMAND_EVENT, this::handleEventCommand);
+        register(COMMAND_DELETE, this::handleDeleteCommand);
+        register(COMMAND_FIND, this::handleFindCommand);
+        register(COMMAND_SORT, this::handleSortCommand);
+        register(COMMAND_STATS, this::handleStatsCommand);
+    }
+
+    /**
+     * Registers a command, timing every run of it in the "command.WORD" histogram
+     * and reporting it to Flight Recorder as a luke.Command event.
+     *
+     * @param word The word that starts the command
+     * @param command What the command does
+     */
+    private void register(String word, Command command) {
+        LatencyHistogram latency = Stats.histogram(COMMAND_LATENCY_PREFIX + word);
+        commands.put(word, (input, out) -> {
+            CommandEvent event = new CommandEvent();
+            event.begin();
+            long startTime = System.nanoTime();
+            String outcome = CommandEvent.OUTCOME_FAILED;
+            try {
+                boolean isExit = command.execute(input, out);
+                outcome = isExit ? CommandEvent.OUTCOME_EXIT : CommandEvent.OUTCOME_OK;
+                return isExit;
+            } catch (LukeException e) {
+                outcome = CommandEvent.OUTCOME_REJECTED;
+                throw e;
+            } finally {
+                latency.record(System.nanoTime() - startTime);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.command = word;
+                    event.taskCount = tasks.size();
+                    event.outcome = outcome;
+                    event.commit();
+                }
+            }
+        });
     }
 
     /**
-     * Handles todo command for GUI.
+     * Processes a user command by looking up its first word.
+     *
+     * @param input The user input command
+     * @param out Where to show the response
+     * @return true if the program should exit, false otherwise
+     * @throws LukeException If command processing fails
      */
-    private void handleTodoCommandForGui(String input) throws LukeException {
-        if (input.length() <= 5) {
-            throw new LukeException("Please tell me what to do! Try again.");
+    private boolean execute(String input, OutputSink out) throws LukeException {
+        // Guard clause for null or empty input
+        if (input == null || input.trim().isEmpty()) {
+            throw new LukeException("Please enter a command");
         }
 
-        String description = input.substring(COMMAND_TODO.length());
-        Task newTask = new Task(description, Task.TYPE_TODO);
-
-        tasks.addTask(newTask);
-        responseBuilder.append("Noted. I've added this task:\n")
-                .append(newTask).append("\n")
-                .append("Now you have ").append(tasks.size()).append(" tasks in the list.");
-        saveTasksToStorage();
+        int wordEnd = input.indexOf(' ');
+        Command command = commands.get(wordEnd < 0 ? input : input.substring(0, wordEnd));
+        if (command == null) {
+            throw new LukeException("I don't know what that means! Try again.");
+        }
+        return command.execute(input, out);
     }
 
     /**
-     * Handles deadline command for GUI.
+     * Handles stats command, which shows how long commands and saving have taken so far.
+     * "stats json" shows the same numbers as JSON, in nanoseconds.
      */
-    private void handleDeadlineCommandForGui(String input) throws LukeException {
-        Task newTask = Parser.parseDeadline(input);
-        tasks.addTask(newTask);
-        responseBuilder.append("Noted. I've added this task:\n")
-                .append(newTask).append("\n")
-                .append("Now you have ").append(tasks.size()).append(" tasks in the list.");
-        saveTasksToStorage();
+    private boolean handleStatsCommand(String input, OutputSink out) throws LukeException {
+        String argument = extractArgument(input);
+        if (argument.equals(STATS_JSON)) {
+            out.showMessage(Stats.toJson());
+        } else if (argument.isEmpty()) {
+            out.showMessage(Stats.format());
+        } else {
+            throw new LukeException("Try 'stats' or 'stats json'.");
+        }
+        return false;
     }
 
     /**
-     * Handles event command for GUI.
+     * Handles bye command, saving any pending changes.
      */
-    private void handleEventCommandForGui(String input) throws LukeException {
-        Task newTask = Parser.parseEvent(input);
-        tasks.addTask(newTask);
-        responseBuilder.append("Noted. I've added this task:\n")
-                .append(newTask).append("\n")
-                .append("Now you have ").append(tasks.size()).append(" tasks in the list.");
-        saveTasksToStorage();
+    private boolean handleByeCommand(String input, OutputSink out) throws LukeException {
+        flushPendingChanges();
+        out.showBye();
+        return true;
     }
 
     /**
-     * Handles delete command for GUI.
+     * Handles list command, which shows every task or only a range such as "200-400" or "page 3".
      */
-    private void handleDeleteCommandForGui(String input) throws LukeException {
-        if (input.length() <= 7) {
-            throw new LukeException("Please tell me which task to delete! Try again.");
-        }
-
-        try {
-            int taskNum = extractTaskNumber(input);
-            validateTaskIndex(taskNum);
-
-            Task deletedTask = tasks.getTask(taskNum);
-            tasks.deleteTask(taskNum);
-
-            responseBuilder.append("Noted. I've removed this task:\n")
-                    .append(deletedTask).append("\n")
-                    .append("Now you have ").append(tasks.size()).append(" tasks in the list.");
-
-            saveTasksToStorage();
-
-        } catch (NumberFormatException e) {
-            throw new LukeException("Please give me a valid task number! Try again.");
+    private boolean handleListCommand(String input, OutputSink out) throws LukeException {
+        String argument = extractArgument(input);
+        if (argument.isEmpty()) {
+            listTasks(0, tasks.size(), out);
+        } else {
+            int[] range = Parser.parseListRange(argument, LIST_PAGE_SIZE);
+            listTasks(range[0], range[1], out);
         }
+        return false;
     }
 
     /**
-     * Handles find command for GUI.
+     * Lists tasks [fromIndex, toIndex).
+     * At most out.getMaxTaskLines() tasks are shown, followed by how to see the rest.
+     *
+     * @param fromIndex Zero-based index of the first task to list
+     * @param toIndex Zero-based index after the last task to list
+     * @param out Where to show the tasks
      */
-    private void handleFindCommandForGui(String input) throws LukeException {
-        if (input.length() <= 5) {
-            throw new LukeException("Please enter a keyword to search for! Try again.");
+    private void listTasks(int fromIndex, int toIndex, OutputSink out) {
+        if (tasks.isEmpty()) {
+            out.showMessage("No tasks in your list!");
+            return;
         }
 
-        String keyword = input.substring(COMMAND_FIND.length()).trim().toLowerCase();
-        boolean found = false;
-        responseBuilder.append("Here are the matching tasks in your list:\n");
-
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.getTask(i);
-            String description = task.getDescription().toLowerCase();
-
-            if (description.contains(keyword)) {
-                responseBuilder.append(i + 1).append(".").append(task.toString()).append("\n");
-                found = true;
-            }
+        int end = Math.min(toIndex, tasks.size());
+        if (fromIndex >= end) {
+            out.showMessage("No tasks in that range! You have " + tasks.size() + " tasks.");
+            return;
         }
 
-        if (!found) {
-            responseBuilder.append("No matching tasks found!");
+        out.showMessage("Here are the tasks in your list:");
+        int shownEnd = end - fromIndex > out.getMaxTaskLines() ? fromIndex + out.getMaxTaskLines() : end;
+        for (int i = fromIndex; i < shownEnd; i++) {
+            out.showTask(i + 1, tasks.getTask(i));
+        }
+        if (shownEnd < end) {
+            out.showMessage("Showing tasks " + (fromIndex + 1) + "-" + shownEnd + " of " + tasks.size()
+                    + ". Type 'list " + (shownEnd + 1) + "-" + Math.min(end, shownEnd + LIST_PAGE_SIZE)
+                    + "' to see more.");
         }
     }
 
     /**
-     * Handles sort command for GUI.
+     * Handles sort command.
+     *
+     * @param input Command string (e.g., "sort date" or "sort description")
+     * @param out Where to show the response
+     * @throws LukeException If command format is invalid
      */
-    private void handleSortCommandForGui(String input) throws LukeException {
-        if (input.length() <= 5) {
+    private boolean handleSortCommand(String input, OutputSink out) throws LukeException {
+        String sortCriteria = extractArgument(input).toLowerCase();
+        if (sortCriteria.isEmpty()) {
             throw new LukeException("Please specify how to sort! Try 'sort date' or 'sort description'.");
         }
 
-        String sortCriteria = input.substring(5).trim().toLowerCase();
-
         if (tasks.isEmpty()) {
-            responseBuilder.append("No tasks to sort!");
-            return;
+            out.showMessage("No tasks to sort!");
+            return false;
         }
 
         switch (sortCriteria) {
             case "date":
                 tasks.sortByDate();
-                responseBuilder.append("Tasks sorted by date!\n");
+                out.showMessage("Tasks sorted by date!");
                 break;
             case "description":
                 tasks.sortByDescription();
-                responseBuilder.append("Tasks sorted by description!\n");
+                out.showMessage("Tasks sorted by description!");
                 break;
             case "type":
                 tasks.sortByType();
-                responseBuilder.append("Tasks sorted by type!\n");
+                out.showMessage("Tasks sorted by type!");
                 break;
             default:
                 throw new LukeException("Unknown sort criteria. Try 'sort date', 'sort description', or 'sort type'.");
         }
+        persistSort(sortCriteria);
 
-        listTasksForGui();
+        listTasks(0, tasks.size(), out);
+        return false;
     }
 
-    // The rest of your existing methods remain the same
-
     /**
-     * Processes a user command.
+     * Handles mark and unmark commands.
      *
-     * @param input The user input command
-     * @return true if the program should exit, false otherwise
-     * @throws LukeException If command processing fails
+     * @param input Command string
+     * @param out Where to show the response
+     * @param isMarking True for mark, false for unmark
+     * @throws LukeException If command format is invalid
      */
-    private boolean processCommand(String input) throws LukeException {
-        // Guard clause for null or empty input
-        if (input == null || input.trim().isEmpty()) {
-            ui.showError("Please enter a command");
-            return false;
-        }
-
-        if (input.equals(COMMAND_BYE)) {
-            ui.showBye();
-            return true;
-        }
-
-        if (input.equals(COMMAND_LIST)) {
-            listTasks();
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_MARK) || input.startsWith(COMMAND_UNMARK)) {
-            handleMarkCommand(input);
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_TODO)) {
-            handleTodoCommand(input);
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_DEADLINE)) {
-            handleDeadlineCommand(input);
-            return false;
-        }
-
-        if (input.startsWith(COMMAND_EVENT)) {
-            handleEventCommand(input);
-            return false;
+    private boolean handleMarkCommand(String input, OutputSink out, boolean isMarking) throws LukeException {
+        String argument = extractArgument(input);
+        if (argument.isEmpty()) {
+            throw new LukeException("Please indicate which task to mark! Try again.");
         }
 
-        if (input.startsWith(COMMAND_DELETE)) {
-            handleDeleteCommand(input);
+        if (Parser.isTaskSelection(argument)) {
+            out.showMessage(markSelectedTasks(argument, isMarking));
             return false;
         }
 
-        if (input.startsWith(COMMAND_FIND)) {
-            handleFindCommand(input);
-            return false;
-        }
+        int taskNum = extractTaskNumber(argument);
+        validateTaskIndex(taskNum);
 
-        // New sort command handler
-        if (input.startsWith(COMMAND_SORT)) {
-            handleSortCommand(input);
-            return false;
-        }
+        updateTaskMarkStatus(taskNum, isMarking, out);
 
-        // Default case for unrecognized command
-        ui.showError("I don't know what that means! Try again.");
+        persistMark(taskNum);
         return false;
     }
 
     /**
-     * Lists all tasks.
+     * Extracts everything after the command word.
+     *
+     * @param input Command string
+     * @return The argument, trimmed, or an empty string if there is none
      */
-    private void listTasks() {
-        if (tasks.isEmpty()) {
-            System.out.println("No tasks in your list!");
-            return;
-        }
-
-        System.out.println("Here are the tasks in your list:");
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.getTask(i);
-            showTaskWithIndex(i + 1, task);
-        }
+    private String extractArgument(String input) {
+        int wordEnd = input.indexOf(' ');
+        return wordEnd < 0 ? "" : input.substring(wordEnd + 1).trim();
     }
 
     /**
-     * Shows a task with its index.
+     * Marks or unmarks every task in a selection such as "3,5,9-20" or "done",
+     * saving the change once.
      *
-     * @param index 1-based index to display
-     * @param task Task to display
+     * @param selection The tasks to change
+     * @param isMarking True to mark as done, false to mark as not done
+     * @return A summary of what was changed
+     * @throws LukeException If the selection is invalid or saving fails
      */
-    private void showTaskWithIndex(int index, Task task) {
-        System.out.println(index + "." + task.toString());
+    private String markSelectedTasks(String selection, boolean isMarking) throws LukeException {
+        BitSet selected = Parser.parseTaskSelection(selection, tasks);
+        if (selected.isEmpty()) {
+            return "No tasks matched " + selection + "!";
+        }
+
+        tasks.markTasks(selected, isMarking);
+        persistMarks(selected, isMarking);
+        return (isMarking ? "Nice! I've marked " : "OK, I've marked ") + selected.cardinality()
+                + (isMarking ? " tasks as done." : " tasks as not done yet.");
     }
 
     /**
-     * Handles sort command.
+     * Deletes every task in a selection such as "1-500" or "done", saving the change once.
      *
-     * @param input Command string (e.g., "sort date" or "sort description")
-     * @throws LukeException If command format is invalid
+     * @param selection The tasks to delete
+     * @return A summary of what was deleted
+     * @throws LukeException If the selection is invalid or saving fails
      */
-    private void handleSortCommand(String input) throws LukeException {
-        if (input.length() <= 5) {
-            throw new LukeException("Please specify how to sort! Try 'sort date' or 'sort description'.");
-        }
-
-        String sortCriteria = input.substring(5).trim().toLowerCase();
-
-        if (tasks.isEmpty()) {
-            System.out.println("No tasks to sort!");
-            return;
+    private String deleteSelectedTasks(String selection) throws LukeException {
+        BitSet selected = Parser.parseTaskSelection(selection, tasks);
+        if (selected.isEmpty()) {
+            return "No tasks matched " + selection + "!";
         }
 
-        switch (sortCriteria) {
-            case "date":
-                tasks.sortByDate();
-                System.out.println("Tasks sorted by date!");
-                break;
-            case "description":
-                tasks.sortByDescription();
-                System.out.println("Tasks sorted by description!");
-                break;
-            case "type":
-                tasks.sortByType();
-                System.out.println("Tasks sorted by type!");
-                break;
-            default:
-                throw new LukeException("Unknown sort criteria. Try 'sort date', 'sort description', or 'sort type'.");
-        }
-
-        listTasks();
+        long[] ids = getIds(selected); // Saved by ID, since the indexes change once the tasks are gone
+        int removed = tasks.deleteTasks(selected);
+        persistDeletes(ids);
+        return "Noted. I've removed " + removed + " tasks.\n"
+                + "Now you have " + tasks.size() + " tasks in the list.";
     }
 
     /**
-     * Handles mark and unmark commands.
+     * Gets the IDs of the tasks at some indexes.
      *
-     * @param input Command string
-     * @throws LukeException If command format is invalid
+     * @param indexes Zero-based indexes of the tasks
+     * @return IDs of the tasks, in list order
      */
-    private void handleMarkCommand(String input) throws LukeException {
-        if (input.length() <= 5) {
-            throw new LukeException("Please indicate which task to mark! Try again.");
-        }
-
-        try {
-            int taskNum = extractTaskNumber(input);
-            validateTaskIndex(taskNum);
-
-            boolean isMarkCommand = input.startsWith(COMMAND_MARK);
-            updateTaskMarkStatus(taskNum, isMarkCommand);
-
-            saveTasksToStorage();
-
-        } catch (NumberFormatException e) {
-            throw new LukeException("Please give me a valid task number! Try again.");
+    private long[] getIds(BitSet indexes) {
+        long[] ids = new long[indexes.cardinality()];
+        int count = 0;
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            ids[count++] = tasks.getTask(i).getId();
         }
+        return ids;
     }
 
     /**
-     * Extracts the task number from the command string.
+     * Extracts the task number from a command argument.
+     * Tasks can be given by their number in the list or by their ID, e.g. "#12".
      *
-     * @param input Command string
-     * @return Zero-based task index
-     */
-    private int extractTaskNumber(String input) {
-        String[] parts = input.split(" ");
-        return Integer.parseInt(parts[1]) - 1; // Convert to zero-based index
+     * @param argument Command argument, starting with the number
+     * @return Zero-based task index, which may be out of range
+     * @throws LukeException If the number is not valid or no task has the given ID
+     */
+    private int extractTaskNumber(String argument) throws LukeException {
+        if (argument.startsWith(Task.ID_PREFIX)) {
+            long id = Parser.parseTaskNumber(argument, Task.ID_PREFIX.length());
+            int index = tasks.indexOf(id);
+            if (index < 0) {
+                throw new LukeException("No task has the ID " + Task.ID_PREFIX + id + "! Try again.");
+            }
+            return index;
+        }
+        long number = Parser.parseTaskNumber(argument, 0);
+        return (int) Math.min(number, tasks.size() + 1L) - 1; // Convert to zero-based index
     }
 
     /**
@@ -507,165 +645,338 @@ public class Luke {
      *
      * @param taskIndex Zero-based task index
      * @param isMarking True to mark as done, false to mark as not done
+     * @param out Where to show the response
      */
-    private void updateTaskMarkStatus(int taskIndex, boolean isMarking) {
+    private void updateTaskMarkStatus(int taskIndex, boolean isMarking, OutputSink out) {
         if (isMarking) {
             tasks.markTaskAsDone(taskIndex);
-            System.out.println("Nice! I've marked this task as done:");
+            out.showMessage("Nice! I've marked this task as done:");
         } else {
             tasks.markTaskAsNotDone(taskIndex);
-            System.out.println("OK, I've marked this task as not done yet:");
+            out.showMessage("OK, I've marked this task as not done yet:");
         }
-        System.out.println(tasks.getTask(taskIndex));
+        out.showMessage(tasks.getTask(taskIndex));
     }
 
     /**
      * Handles todo command.
      *
      * @param input Command string
+     * @param out Where to show the response
      * @throws LukeException If command format is invalid
      */
-    private void handleTodoCommand(String input) throws LukeException {
-        if (input.length() <= 5) {
+    private boolean handleTodoCommand(String input, OutputSink out) throws LukeException {
+        if (input.length() <= COMMAND_TODO.length() + 1) {
             throw new LukeException("Please tell me what to do! Try again.");
         }
 
-        String description = input.substring(COMMAND_TODO.length());
+        String description = input.substring(COMMAND_TODO.length() + 1);
         Task newTask = new Task(description, Task.TYPE_TODO);
 
-        addTaskAndShowFeedback(newTask);
+        addTaskAndShowFeedback(newTask, out);
+        return false;
     }
 
     /**
      * Handles deadline command.
      *
      * @param input Command string
+     * @param out Where to show the response
      * @throws LukeException If command format is invalid
      */
-    private void handleDeadlineCommand(String input) throws LukeException {
+    private boolean handleDeadlineCommand(String input, OutputSink out) throws LukeException {
         Task newTask = Parser.parseDeadline(input);
-        addTaskAndShowFeedback(newTask);
+        addTaskAndShowFeedback(newTask, out);
+        return false;
     }
 
     /**
      * Handles event command.
      *
      * @param input Command string
+     * @param out Where to show the response
      * @throws LukeException If command format is invalid
      */
-    private void handleEventCommand(String input) throws LukeException {
+    private boolean handleEventCommand(String input, OutputSink out) throws LukeException {
         Task newTask = Parser.parseEvent(input);
-        addTaskAndShowFeedback(newTask);
+        addTaskAndShowFeedback(newTask, out);
+        return false;
     }
 
     /**
      * Adds a task and shows feedback to the user.
      *
      * @param task Task to add
+     * @param out Where to show the response
      * @throws LukeException If saving fails
      */
-    private void addTaskAndShowFeedback(Task task) throws LukeException {
+    private void addTaskAndShowFeedback(Task task, OutputSink out) throws LukeException {
         tasks.addTask(task);
-        showTaskAddedMessage(task);
-        saveTasksToStorage();
+        out.showMessages("Noted. I've added this task:", task,
+                "Now you have " + tasks.size() + " tasks in the list.");
+        persistAdd(task);
     }
 
     /**
-     * Shows a message that a task was added.
+     * Saves current tasks to storage.
+     *
+     * @throws LukeException If saving fails
+     */
+    private void saveTasksToStorage() throws LukeException {
+        if (deferSave()) {
+            return;
+        }
+        storage.save(tasks.getTasks(), tasks.getNextId());
+    }
+
+    /**
+     * Saves a newly added task.
      *
      * @param task The added task
+     * @throws LukeException If saving fails
      */
-    private void showTaskAddedMessage(Task task) {
-        System.out.println("Noted. I've added this task:");
-        System.out.println(task);
-        System.out.println("Now you have " + tasks.size() + " tasks in the list.");
+    private void persistAdd(Task task) throws LukeException {
+        if (deferSave()) {
+            return;
+        }
+        storage.recordAdd(tasks.getTasks(), task);
     }
 
     /**
-     * Saves current tasks to storage.
+     * Saves the mark status of a task.
      *
+     * @param taskIndex Zero-based index of the changed task
      * @throws LukeException If saving fails
      */
-    private void saveTasksToStorage() throws LukeException {
-        storage.save(tasks.getTasks());
+    private void persistMark(int taskIndex) throws LukeException {
+        if (deferSave()) {
+            return;
+        }
+        storage.recordMark(tasks.getTasks(), taskIndex);
+    }
+
+    /**
+     * Saves the removal of a task.
+     *
+     * @param id ID of the deleted task
+     * @throws LukeException If saving fails
+     */
+    private void persistDelete(long id) throws LukeException {
+        if (deferSave()) {
+            return;
+        }
+        storage.recordDelete(tasks.getTasks(), id);
+    }
+
+    /**
+     * Saves the mark status of several tasks.
+     *
+     * @param indexes Zero-based indexes of the changed tasks
+     * @param isDone Whether the tasks were marked as done
+     * @throws LukeException If saving fails
+     */
+    private void persistMarks(BitSet indexes, boolean isDone) throws LukeException {
+        if (deferSave()) {
+            return;
+        }
+        storage.recordMarks(tasks.getTasks(), indexes, isDone);
+    }
+
+    /**
+     * Saves the removal of several tasks.
+     *
+     * @param ids IDs of the deleted tasks
+     * @throws LukeException If saving fails
+     */
+    private void persistDeletes(long[] ids) throws LukeException {
+        if (deferSave()) {
+            return;
+        }
+        storage.recordDeletes(tasks.getTasks(), ids);
+    }
+
+    /**
+     * Saves the new order of the tasks.
+     *
+     * @param sortCriteria The criteria the tasks were sorted by
+     * @throws LukeException If saving fails
+     */
+    private void persistSort(String sortCriteria) throws LukeException {
+        if (deferSave()) {
+            return;
+        }
+        storage.recordSort(tasks.getTasks(), sortCriteria);
+    }
+
+    /**
+     * Leaves a change to be saved later when saving in the background or running a script.
+     *
+     * @return true if the change will be saved later, false if it must be saved now
+     */
+    private boolean deferSave() {
+        if (isSavingDeferred) {
+            hasDeferredChanges = true;
+            return true;
+        }
+        if (saver != null) {
+            saver.requestSave();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes out changes that are still waiting for a background save or the end of a script.
+     * Does nothing while a script is still running.
+     *
+     * @throws LukeException If saving fails
+     */
+    private void flushPendingChanges() throws LukeException {
+        if (isSavingDeferred) {
+            return;
+        }
+        if (saver != null) {
+            saver.flush();
+        } else if (hasDeferredChanges) {
+            storage.save(tasks.getTasks(), tasks.getNextId());
+        }
+        hasDeferredChanges = false;
     }
 
     /**
      * Handles delete command.
      *
      * @param input Command string
+     * @param out Where to show the response
      * @throws LukeException If command format is invalid
      */
-    private void handleDeleteCommand(String input) throws LukeException {
-        if (input.length() <= 7) {
+    private boolean handleDeleteCommand(String input, OutputSink out) throws LukeException {
+        String argument = extractArgument(input);
+        if (argument.isEmpty()) {
             throw new LukeException("Please tell me which task to delete! Try again.");
         }
 
-        try {
-            int taskNum = extractTaskNumber(input);
-            validateTaskIndex(taskNum);
+        if (Parser.isTaskSelection(argument)) {
+            out.showMessage(deleteSelectedTasks(argument));
+            return false;
+        }
 
-            deleteTaskAndShowFeedback(taskNum);
+        int taskNum = extractTaskNumber(argument);
+        validateTaskIndex(taskNum);
 
-        } catch (NumberFormatException e) {
-            throw new LukeException("Please give me a valid task number! Try again.");
-        }
+        deleteTaskAndShowFeedback(taskNum, out);
+        return false;
     }
 
     /**
      * Deletes a task and shows feedback.
      *
      * @param taskIndex Zero-based task index
+     * @param out Where to show the response
      * @throws LukeException If saving fails
      */
-    private void deleteTaskAndShowFeedback(int taskIndex) throws LukeException {
+    private void deleteTaskAndShowFeedback(int taskIndex, OutputSink out) throws LukeException {
         Task deletedTask = tasks.getTask(taskIndex);
         tasks.deleteTask(taskIndex);
 
-        System.out.println("Noted. I've removed this task:");
-        System.out.println(deletedTask);
-        System.out.println("Now you have " + tasks.size() + " tasks in the list.");
+        out.showMessages("Noted. I've removed this task:", deletedTask,
+                "Now you have " + tasks.size() + " tasks in the list.");
 
-        saveTasksToStorage();
+        persistDelete(deletedTask.getId());
     }
 
     /**
      * Handles find command to search for tasks containing keywords.
      *
      * @param input Command string
+     * @param out Where to show the response
      * @throws LukeException If command format is invalid
      */
-    private void handleFindCommand(String input) throws LukeException {
-        if (input.length() <= 5) {
+    private boolean handleFindCommand(String input, OutputSink out) throws LukeException {
+        String query = extractArgument(input).toLowerCase();
+        if (query.isEmpty()) {
             throw new LukeException("Please enter a keyword to search for! Try again.");
         }
 
-        String keyword = input.substring(COMMAND_FIND.length()).trim().toLowerCase();
-        findAndDisplayMatchingTasks(keyword);
+        int limit = Math.min(getFindLimit(query), out.getMaxTaskLines());
+        findAndDisplayMatchingTasks(getFindKeyword(query), limit, out);
+        return false;
     }
 
     /**
      * Finds and displays tasks matching the keyword.
      *
      * @param keyword Keyword to search for
+     * @param limit Most matches to show
+     * @param out Where to show the matches
      */
-    private void findAndDisplayMatchingTasks(String keyword) {
-        boolean found = false;
-        System.out.println("Here are the matching tasks in your list:");
+    private void findAndDisplayMatchingTasks(String keyword, int limit, OutputSink out) {
+        ArrayList<Integer> matches = findMatchingTasks(keyword);
+        out.showMessage("Here are the matching tasks in your list:");
+
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            int index = matches.get(i);
+            out.showTask(index + 1, tasks.getTask(index));
+        }
 
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.getTask(i);
-            String description = task.getDescription().toLowerCase();
+        if (matches.isEmpty()) {
+            out.showMessage("No matching tasks found!");
+        } else if (matches.size() > limit) {
+            out.showMessage("Showing the first " + limit + " of " + matches.size() + " matches.");
+        }
+    }
+
+    /**
+     * Removes a trailing "--limit N" from a find query.
+     *
+     * @param query Query after the find command
+     * @return The query without the limit
+     */
+    private static String getFindKeyword(String query) {
+        int limitStart = query.lastIndexOf(FIND_LIMIT_FLAG);
+        return limitStart < 0 ? query : query.substring(0, limitStart).trim();
+    }
 
-            if (description.contains(keyword)) {
-                showTaskWithIndex(i + 1, task);
-                found = true;
+    /**
+     * Reads the N of a trailing "--limit N" in a find query.
+     *
+     * @param query Query after the find command
+     * @return The limit, or Integer.MAX_VALUE if there is none
+     * @throws LukeException If the limit is not a positive number
+     */
+    private static int getFindLimit(String query) throws LukeException {
+        int limitStart = query.lastIndexOf(FIND_LIMIT_FLAG);
+        if (limitStart < 0) {
+            return Integer.MAX_VALUE;
+        }
+        try {
+            int limit = Integer.parseInt(query.substring(limitStart + FIND_LIMIT_FLAG.length()).trim());
+            if (limit > 0) {
+                return limit;
             }
+        } catch (NumberFormatException e) {
+            // Reported below
         }
+        throw new LukeException("Please give a positive number after --limit! Try again.");
+    }
 
-        if (!found) {
-            System.out.println("No matching tasks found!");
+    /**
+     * Finds tasks matching a find query.
+     * Queries starting with "/w" match whole words using the keyword index.
+     * Keywords joined with "/or" match tasks containing any of them.
+     * All others match the keyword anywhere in the description.
+     *
+     * @param query Lower-case query after the find command
+     * @return Zero-based indexes of matching tasks, in list order
+     */
+    private ArrayList<Integer> findMatchingTasks(String query) {
+        if (query.startsWith(FIND_WORDS_FLAG)) {
+            return tasks.findByWords(query.substring(FIND_WORDS_FLAG.length()));
+        }
+        if (query.contains(FIND_OR_SEPARATOR)) {
+            return tasks.findByKeywords(Parser.getKeywordMatcher(query.split(FIND_OR_SEPARATOR)));
         }
+        return tasks.findByKeyword(query);
     }
 
     /**
@@ -674,26 +985,35 @@ public class Luke {
      * @param tasks The tasks to add
      */
     public void addMultipleTasks(Task... newTasks) {
-        for (Task task : newTasks) {
-            this.tasks.addTask(task);
-            System.out.println("Added: " + task);
-        }
+        synchronized (tasks) {
+            for (Task task : newTasks) {
+                this.tasks.addTask(task);
+                ui.showMessage("Added: " + task);
+            }
 
-        System.out.println("Now you have " + this.tasks.size() + " tasks in the list.");
+            ui.showMessage("Now you have " + this.tasks.size() + " tasks in the list.");
 
-        try {
-            saveTasksToStorage();
-        } catch (LukeException e) {
-            ui.showError(e.getMessage());
+            try {
+                saveTasksToStorage();
+            } catch (LukeException e) {
+                ui.showError(e.getMessage());
+            }
+            ui.flush();
         }
     }
 
     /**
      * Main entry point of the application.
      *
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments: none for interactive use, or "--script FILE"
      */
     public static void main(String[] args) {
-        new Luke("data/luke.txt").run();
+        Luke luke = new Luke("data/luke.txt");
+        if (args.length == 2 && args[0].equals(SCRIPT_FLAG)) {
+            luke.runScript(args[1]);
+        } else {
+            luke.run();
+        }
+        luke.shutdown();
     }
 }
\ No newline at end of file
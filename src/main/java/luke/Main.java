@@ -1,43 +1,73 @@
 package luke;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Control;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.HBox;
-import javafx.scene.layout.VBox;
+import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 /**
  * Main Application class for Luke with JavaFX GUI.
+ * The conversation is shown in a ListView, which only creates nodes for the
+ * messages on screen. The oldest messages are dropped once there are too many.
+ *
+ * <p>Commands run one at a time on a worker thread, in the order they were sent,
+ * so saving a large list never freezes the window. A placeholder reply is shown
+ * until each command's response arrives.</p>
+ *
+ * <p>The window opens before the tasks are loaded. Loading is the first job on the
+ * command thread, so commands sent meanwhile wait for it and then run in order.</p>
  */
 public class Main extends Application {
+    private static final int MAX_MESSAGES = 2000;
+    private static final double CELL_PADDING = 20.0; // Room for the scroll bar
+    private static final String DATA_FILE = "data/luke.txt";
+    private static final String PENDING_REPLY = "Luke: ...";
+    private static final double EXIT_DELAY_MILLIS = 800;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "luke-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Luke luke;
     private TextField userInput;
-    private VBox dialogContainer;
-    private ScrollPane scrollPane;
+    private final ObservableList<Message> transcript = FXCollections.observableArrayList();
+    private ListView<Message> dialogView;
 
     @Override
     public void start(Stage stage) {
-        luke = new Luke("data/luke.txt");
+        luke = new Luke(DATA_FILE, false);
 
         AnchorPane mainLayout = new AnchorPane();
 
-        scrollPane = new ScrollPane();
-        dialogContainer = new VBox(10);
-        scrollPane.setContent(dialogContainer);
+        dialogView = new ListView<>(transcript);
+        dialogView.setCellFactory(view -> new MessageCell(view));
+        dialogView.setFocusTraversable(false);
 
         userInput = new TextField();
         Button sendButton = new Button("Send");
 
-        mainLayout.getChildren().addAll(scrollPane, userInput, sendButton);
+        mainLayout.getChildren().addAll(dialogView, userInput, sendButton);
 
-        setLayoutConstraints(mainLayout, scrollPane, userInput, sendButton);
+        setLayoutConstraints(mainLayout, dialogView, userInput, sendButton);
 
         sendButton.setOnMouseClicked((event) -> {
             handleUserInput();
@@ -47,8 +77,6 @@ public class Main extends Application {
             handleUserInput();
         });
 
-        dialogContainer.heightProperty().addListener((observable) -> scrollPane.setVvalue(1.0));
-
         Scene scene = new Scene(mainLayout, 400, 600);
         stage.setTitle("Luke");
         stage.setMinHeight(400);
@@ -57,26 +85,55 @@ public class Main extends Application {
         stage.show();
 
         // Show welcome message using Luke's welcome method
-        Label welcomeMsg = new Label(luke.getWelcomeMessage());
-        dialogContainer.getChildren().add(welcomeMsg);
+        addMessage(luke.getWelcomeMessage(), false);
+        loadTasks();
+    }
+
+    /**
+     * Loads the tasks on the command thread, showing how it went once done.
+     */
+    private void loadTasks() {
+        Message pending = addMessage("Luke: Loading your tasks...", false);
+        commandExecutor.execute(() -> {
+            long startTime = System.nanoTime();
+            String status;
+            try {
+                int count = luke.loadTasks();
+                status = String.format("Loaded %d tasks in %d ms.", count,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            } catch (LukeException e) {
+                status = "Something went wrong loading the file! Starting with an empty list.";
+            }
+            String message = "Luke: " + status;
+            Platform.runLater(() -> replaceMessage(pending, message));
+        });
+    }
+
+    /**
+     * Lets commands already sent finish, then saves any pending changes before the application exits.
+     */
+    @Override
+    public void stop() throws InterruptedException {
+        commandExecutor.shutdown();
+        commandExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (luke != null) {
+            luke.shutdown();
+        }
     }
 
     /**
      * Sets up the layout constraints for all components.
      */
-    private void setLayoutConstraints(AnchorPane mainLayout, ScrollPane scrollPane,
+    private void setLayoutConstraints(AnchorPane mainLayout, ListView<Message> dialogView,
                                       TextField userInput, Button sendButton) {
         // Set main layout size
         mainLayout.setPrefSize(400, 600);
 
-        scrollPane.setPrefSize(385, 535);
-        scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.ALWAYS);
-        scrollPane.setFitToWidth(true);
+        dialogView.setPrefSize(385, 535);
 
-        AnchorPane.setTopAnchor(scrollPane, 1.0);
-        AnchorPane.setLeftAnchor(scrollPane, 1.0);
-        AnchorPane.setRightAnchor(scrollPane, 1.0);
+        AnchorPane.setTopAnchor(dialogView, 1.0);
+        AnchorPane.setLeftAnchor(dialogView, 1.0);
+        AnchorPane.setRightAnchor(dialogView, 1.0);
 
         userInput.setPrefWidth(325.0);
         AnchorPane.setBottomAnchor(userInput, 1.0);
@@ -86,11 +143,11 @@ public class Main extends Application {
         AnchorPane.setBottomAnchor(sendButton, 1.0);
         AnchorPane.setRightAnchor(sendButton, 1.0);
 
-        AnchorPane.setBottomAnchor(scrollPane, 41.0); // TextField height + padding
+        AnchorPane.setBottomAnchor(dialogView, 41.0); // TextField height + padding
     }
 
     /**
-     * Process user input, send it to Luke, and display the response.
+     * Process user input, send it to Luke, and display the response once it is ready.
      */
     private void handleUserInput() {
         String input = userInput.getText();
@@ -100,46 +157,106 @@ public class Main extends Application {
         }
 
         // Add user message to the dialog
-        HBox userMessageBox = new HBox();
-        Label userMessageLabel = new Label("You: " + input);
-        userMessageLabel.setWrapText(true);
-        userMessageBox.getChildren().add(userMessageLabel);
-        userMessageBox.setAlignment(Pos.CENTER_RIGHT);
-        dialogContainer.getChildren().add(userMessageBox);
-
-        // Process the command and get Luke's response
-        String response = processCommand(input);
-
-        // Add Luke's response
-        HBox lukeMessageBox = new HBox();
-        Label lukeMessageLabel = new Label("Luke: " + response);
-        lukeMessageLabel.setWrapText(true);
-        lukeMessageBox.getChildren().add(lukeMessageLabel);
-        lukeMessageBox.setAlignment(Pos.CENTER_LEFT);
-        dialogContainer.getChildren().add(lukeMessageBox);
+        addMessage("You: " + input, true);
+
+        // Hold Luke's place in the dialog until the response arrives
+        Message pending = addMessage(PENDING_REPLY, false);
+        commandExecutor.execute(() -> {
+            TextOutput response = processCommand(input);
+            Platform.runLater(() -> showResponse(pending, response));
+        });
 
         // Clear the input field
         userInput.clear();
     }
 
     /**
-     * Process a command and get Luke's response.
+     * Replaces a placeholder with Luke's response, and exits shortly after a bye.
      */
-    private String processCommand(String input) {
-        if (input.equals("bye")) {
-            // Schedule application to exit after showing response
-            Platform.runLater(() -> {
-                try {
-                    Thread.sleep(800);
-                    Platform.exit();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            });
-            return "Bye. Hope to see you again!!";
+    private void showResponse(Message pending, TextOutput response) {
+        replaceMessage(pending, "Luke: " + response);
+
+        if (response.isExit()) {
+            userInput.setDisable(true);
+            PauseTransition exitDelay = new PauseTransition(Duration.millis(EXIT_DELAY_MILLIS));
+            exitDelay.setOnFinished(event -> Platform.exit());
+            exitDelay.play();
         }
+    }
 
-        // Use Luke's getResponse method for all commands
-        return luke.getResponse(input);
+    /**
+     * Adds a message to the end of the conversation and scrolls to it.
+     * The oldest messages are dropped to keep at most MAX_MESSAGES.
+     */
+    private Message addMessage(String text, boolean isFromUser) {
+        Message message = new Message(text, isFromUser);
+        transcript.add(message);
+        if (transcript.size() > MAX_MESSAGES) {
+            transcript.remove(0, transcript.size() - MAX_MESSAGES);
+        }
+        dialogView.scrollTo(transcript.size() - 1);
+        return message;
+    }
+
+    /**
+     * Replaces a placeholder message, or adds the text at the end if the placeholder was already dropped.
+     */
+    private void replaceMessage(Message pending, String text) {
+        int index = transcript.lastIndexOf(pending);
+        if (index >= 0) {
+            transcript.set(index, new Message(text, false));
+        } else {
+            addMessage(text, false);
+        }
+    }
+
+    /**
+     * Process a command and get Luke's response. Runs on the command thread.
+     */
+    private TextOutput processCommand(String input) {
+        try {
+            return luke.respond(input);
+        } catch (RuntimeException e) {
+            TextOutput failure = new TextOutput(0);
+            failure.showMessage("Something went wrong: " + e.getMessage());
+            return failure;
+        }
+    }
+
+    /**
+     * A message in the conversation.
+     */
+    private static class Message {
+        private final String text;
+        private final boolean isFromUser;
+
+        Message(String text, boolean isFromUser) {
+            this.text = text;
+            this.isFromUser = isFromUser;
+        }
+    }
+
+    /**
+     * Shows a message, wrapped to the width of the list.
+     * Cells are reused for whichever messages are on screen.
+     */
+    private static class MessageCell extends ListCell<Message> {
+        MessageCell(ListView<Message> view) {
+            setWrapText(true);
+            prefWidthProperty().bind(view.widthProperty().subtract(CELL_PADDING));
+            setMaxWidth(Control.USE_PREF_SIZE);
+        }
+
+        @Override
+        protected void updateItem(Message message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setText(null);
+                return;
+            }
+            setText(message.text);
+            setAlignment(message.isFromUser ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
+            setTextAlignment(message.isFromUser ? TextAlignment.RIGHT : TextAlignment.LEFT);
+        }
     }
-}
\ No newline at end of file
+}
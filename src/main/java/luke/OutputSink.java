@@ -0,0 +1,44 @@
+package luke;
+
+/**
+ * Somewhere command responses are shown, such as the console or a GUI message.
+ */
+public interface OutputSink {
+    /**
+     * Shows a message on its own line.
+     *
+     * @param message The message to show
+     */
+    void showMessage(Object message);
+
+    /**
+     * Shows several messages, one per line.
+     *
+     * @param messages The messages to show
+     */
+    default void showMessages(Object... messages) {
+        for (Object message : messages) {
+            showMessage(message);
+        }
+    }
+
+    /**
+     * Shows a task with its position in the list and its ID.
+     *
+     * @param index 1-based index to display
+     * @param task Task to display
+     */
+    void showTask(int index, Task task);
+
+    /**
+     * Shows the goodbye message.
+     */
+    void showBye();
+
+    /**
+     * Gets how many tasks a single response may show before it is cut short.
+     *
+     * @return The most task lines to show, or Integer.MAX_VALUE for no limit
+     */
+    int getMaxTaskLines();
+}
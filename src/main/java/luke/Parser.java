@@ -1,5 +1,14 @@
 package luke;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
 /**
  * Parser class that converts user commands into Task objects.
  * Handles the formatting and validation of input strings.
@@ -13,126 +22,238 @@ public class Parser {
     private static final String EVENT_FROM_SEPARATOR = " /from ";
     private static final String EVENT_TO_SEPARATOR = " /to ";
 
+    // Matches the output of formatDateTime, e.g. "Jan 1 2023, 6PM"
+    private static final DateTimeFormatter DISPLAY_FORMAT =
+            DateTimeFormatter.ofPattern("MMM d yyyy, ha", Locale.ENGLISH);
+    private static final String[] MONTH_NAMES = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int MAX_TASK_NUMBER_DIGITS = 18; // Any more might not fit in a long
+
+    // List ranges, e.g. "200-400" or "page 3"
+    private static final String LIST_PAGE_PREFIX = "page ";
+
+    // Task selections, e.g. "3,5,9-20" or "done"
+    private static final String SELECTION_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final String SELECT_DONE = "done";
+
+    // Matcher for the most recent keyword set, since searches are often repeated
+    private static volatile CachedMatcher lastMatcher;
+
     /**
      * Parses a deadline command and creates a deadline task.
+     * The input is scanned in place, without splitting it into pieces.
      *
      * @param input User input in the format "deadline TASK /by DATE TIME"
      * @return A new deadline Task object
      * @throws LukeException If input format is wrong
      */
     public static Task parseDeadline(String input) throws LukeException {
-        if (!input.contains(DEADLINE_SEPARATOR)) {
+        int byStart = input.indexOf(DEADLINE_SEPARATOR, DEADLINE_PREFIX_LENGTH - 1);
+        if (byStart < 0) {
             throw new LukeException("Please tell me the deadline using /by after a task! Try again.");
         }
 
-        String[] parts = input.substring(DEADLINE_PREFIX_LENGTH).split(DEADLINE_SEPARATOR);
-        String task = parts[0];
-        String dateTime = parts[1];
-
-        String[] dateParts = dateTime.split(" ");
-        if (dateParts.length != 2) {
-            throw new LukeException("Please use format: day/month/year time (e.g., 2/12/2019 1800)");
-        }
-
-        String[] date = dateParts[0].split("/");
-        String time = dateParts[1];
-        String formattedDate = formatDateTime(date, time);
-
-        Task newTask = new Task(task, Task.TYPE_DEADLINE);
-        newTask.setTime(formattedDate);
+        Task newTask = new Task(parseDescription(input, DEADLINE_PREFIX_LENGTH, byStart), Task.TYPE_DEADLINE);
+        parseDateTime(input, byStart + DEADLINE_SEPARATOR.length(), input.length(), newTask,
+                "Please use format: day/month/year time (e.g., 2/12/2019 1800)");
         return newTask;
     }
 
     /**
      * Parses an event command and creates an event task.
+     * The input is scanned in place, without splitting it into pieces.
      *
      * @param input User input in the format "event TASK /from DATE TIME /to END_TIME"
      * @return A new event Task object
      * @throws LukeException If input format is wrong
      */
     public static Task parseEvent(String input) throws LukeException {
-        if (!input.contains(EVENT_FROM_SEPARATOR) || !input.contains(EVENT_TO_SEPARATOR)) {
+        int fromStart = input.indexOf(EVENT_FROM_SEPARATOR, EVENT_PREFIX_LENGTH - 1);
+        int toStart = fromStart < 0 ? -1 : input.indexOf(EVENT_TO_SEPARATOR, fromStart + EVENT_FROM_SEPARATOR.length());
+        if (toStart < 0 || isBlank(input, toStart + EVENT_TO_SEPARATOR.length(), input.length())) {
             throw new LukeException("Please tell me the time using /from and /to! Try again.");
         }
 
-        String[] parts = input.substring(EVENT_PREFIX_LENGTH).split(EVENT_FROM_SEPARATOR);
-        String[] timeParts = parts[1].split(EVENT_TO_SEPARATOR);
+        Task newTask = new Task(parseDescription(input, EVENT_PREFIX_LENGTH, fromStart), Task.TYPE_EVENT);
+        parseDateTime(input, fromStart + EVENT_FROM_SEPARATOR.length(), toStart, newTask,
+                "Please use format: day/month/year time (e.g., 2/12/2019 1400)");
+        return newTask;
+    }
 
-        String task = parts[0];
-        String dateTime = timeParts[0];
+    /**
+     * Gets the task description in input[start, end).
+     *
+     * @throws LukeException If the description is blank
+     */
+    private static String parseDescription(String input, int start, int end) throws LukeException {
+        if (start >= end || isBlank(input, start, end)) {
+            throw new LukeException("Please tell me what the task is! Try again.");
+        }
+        return input.substring(start, end);
+    }
 
-        String[] dateParts = dateTime.split(" ");
-        if (dateParts.length != 2) {
-            throw new LukeException("Please use format: day/month/year time (e.g., 2/12/2019 1400)");
+    /**
+     * Reads a date and time like "2/12/2019 1800" from input[start, end) and sets it as the task's time.
+     * Spaces around it are ignored. The time may also be given as just the hour, e.g. "18".
+     *
+     * @param formatMessage Error to show if the text is not laid out as a date and time
+     * @throws LukeException If the text is not a valid date and time
+     */
+    private static void parseDateTime(String input, int start, int end, Task task, String formatMessage)
+            throws LukeException {
+        int dayStart = skipSpaces(input, start, end);
+        int dayEnd = digitsEnd(input, dayStart, end);
+        int monthEnd = dayEnd < end && input.charAt(dayEnd) == '/' ? digitsEnd(input, dayEnd + 1, end) : -1;
+        int yearEnd = monthEnd >= 0 && monthEnd < end && input.charAt(monthEnd) == '/'
+                ? digitsEnd(input, monthEnd + 1, end) : -1;
+        if (yearEnd < 0 || yearEnd == end || input.charAt(yearEnd) != ' ') {
+            throw new LukeException(formatMessage);
         }
 
-        String[] date = dateParts[0].split("/");
-        String time = dateParts[1];
-        String formattedDate = formatDateTime(date, time);
+        int timeStart = skipSpaces(input, yearEnd, end);
+        int timeEnd = digitsEnd(input, timeStart, end);
+        int timeLength = timeEnd - timeStart;
+        int day = parseDigits(input, dayStart, dayEnd);
+        int month = parseDigits(input, dayEnd + 1, monthEnd);
+        int year = parseDigits(input, monthEnd + 1, yearEnd);
+        if ((timeLength != 2 && timeLength != 4) || skipSpaces(input, timeEnd, end) != end
+                || day < 0 || month < 0 || year < 0) {
+            throw new LukeException(formatMessage);
+        }
 
-        Task newTask = new Task(task, Task.TYPE_EVENT);
-        newTask.setTime(formattedDate);
-        return newTask;
+        int hour = parseDigits(input, timeStart, timeStart + 2);
+        int minute = timeLength == 4 ? parseDigits(input, timeStart + 2, timeEnd) : 0;
+        if (hour > 23 || minute > 59) {
+            throw new LukeException("Please give a time from 0000 to 2359! Try again.");
+        }
+
+        long epochDay;
+        try {
+            epochDay = LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            throw new LukeException("Please give a real date, like 2/12/2019! Try again.");
+        }
+        task.setTime(formatDateTime(day, month, year, hour), epochDay * MINUTES_PER_DAY + hour * 60 + minute);
     }
 
     /**
-     * Formats date and time into a readable string.
+     * Formats a date and hour the way dates are shown.
      *
-     * @param date Array with [day, month, year]
-     * @param time Time in 24-hour format (e.g., "1800")
+     * @param hour Hour of the day, from 0 to 23
      * @return Formatted date string like "Jan 1 2023, 6PM"
      */
-    private static String formatDateTime(String[] date, String time) {
-        String monthName = getMonthName(date[1]);
-        String formattedTime = formatTime(time);
-        return monthName + " " + date[0] + " " + date[2] + ", " + formattedTime;
+    private static String formatDateTime(int day, int month, int year, int hour) {
+        int displayHour = hour % 12 == 0 ? 12 : hour % 12; // Midnight is 12AM and noon is 12PM
+        return new StringBuilder(20).append(MONTH_NAMES[month - 1]).append(' ').append(day).append(' ')
+                .append(year).append(", ").append(displayHour).append(hour < 12 ? "AM" : "PM").toString();
     }
 
     /**
-     * Converts a month number to its name.
+     * Converts a formatted date back into minutes since the epoch.
+     * Scans the string by hand, since this runs for every task loaded from file.
      *
-     * @param monthNumber Month as string ("1" to "12")
-     * @return Short month name (e.g., "Jan")
+     * @param displayTime Date string like "Jan 1 2023, 6PM"
+     * @return Minutes since 1970-01-01 00:00, or Task.NO_DATE if the string is not a formatted date
      */
-    private static String getMonthName(String monthNumber) {
-        switch (monthNumber) {
-            case "1": return "Jan";
-            case "2": return "Feb";
-            case "3": return "Mar";
-            case "4": return "Apr";
-            case "5": return "May";
-            case "6": return "Jun";
-            case "7": return "Jul";
-            case "8": return "Aug";
-            case "9": return "Sep";
-            case "10": return "Oct";
-            case "11": return "Nov";
-            case "12": return "Dec";
-            default: return monthNumber;
+    public static long toEpochMinutes(String displayTime) {
+        // Layout: MMM d yyyy, hAM
+        int dayEnd = displayTime.indexOf(' ', 4);
+        int yearEnd = displayTime.indexOf(',', dayEnd + 1);
+        int length = displayTime.length();
+        if (length < 14 || displayTime.charAt(3) != ' ' || dayEnd < 0 || yearEnd < 0 || yearEnd + 1 >= length
+                || displayTime.charAt(yearEnd + 1) != ' ' || displayTime.charAt(length - 1) != 'M') {
+            return Task.NO_DATE;
         }
+
+        int month = 0;
+        while (month < MONTH_NAMES.length && !displayTime.startsWith(MONTH_NAMES[month])) {
+            month++;
+        }
+        int day = parseDigits(displayTime, 4, dayEnd);
+        int year = parseDigits(displayTime, dayEnd + 1, yearEnd);
+        int hour = parseDigits(displayTime, yearEnd + 2, length - 2);
+        char meridiem = displayTime.charAt(length - 2);
+        if (month == MONTH_NAMES.length || day < 0 || year < 0 || hour < 1 || hour > 12
+                || (meridiem != 'A' && meridiem != 'P')) {
+            return Task.NO_DATE;
+        }
+
+        int hourOfDay = (hour % 12) + (meridiem == 'P' ? 12 : 0);
+        try {
+            return LocalDate.of(year, month + 1, day).toEpochDay() * MINUTES_PER_DAY + hourOfDay * 60;
+        } catch (DateTimeException e) {
+            return Task.NO_DATE;
+        }
+    }
+
+    /**
+     * Finds where a run of digits starting at text[start] ends.
+     *
+     * @return Index of the first non-digit at or after start, or end if there is none
+     */
+    private static int digitsEnd(String text, int start, int end) {
+        int i = start;
+        while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipSpaces(String text, int start, int end) {
+        int i = start;
+        while (i < end && text.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Converts 24-hour time to 12-hour AM/PM format.
+     * Parses the digits in text[start, end).
      *
-     * @param time Time in 24-hour format
-     * @return Time with AM/PM suffix
+     * @return The number, or -1 if the range is empty, too long or has a non-digit
      */
-    private static String formatTime(String time) {
-        int hour = Integer.parseInt(time.substring(0, 2));
-        boolean isAM = hour < 12;
-        int displayHour = (hour <= 12) ? hour : (hour - 12);
+    private static int parseDigits(String text, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
 
-        // Handle midnight (0) as 12AM
-        if (displayHour == 0) {
-            displayHour = 12;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
         }
+        return value;
+    }
 
-        return displayHour + (isAM ? "AM" : "PM");
+    /**
+     * Formats minutes since the epoch the same way as dates entered by the user.
+     *
+     * @param epochMinutes Minutes since 1970-01-01 00:00
+     * @return Date string like "Jan 1 2023, 6PM"
+     */
+    public static String fromEpochMinutes(long epochMinutes) {
+        return LocalDateTime.ofEpochSecond(epochMinutes * 60, 0, ZoneOffset.UTC).format(DISPLAY_FORMAT);
     }
 
     /**
      * Searches for tasks matching any of the provided keywords.
+     * Each description is scanned once, however many keywords there are.
      *
      * @param taskList The list of tasks to search
      * @param keywords Variable number of keywords to search for
@@ -140,19 +261,196 @@ public class Parser {
      */
     public static java.util.ArrayList<Task> findTasksByKeywords(TaskList taskList, String... keywords) {
         java.util.ArrayList<Task> matchingTasks = new java.util.ArrayList<>();
+        for (int index : taskList.findByKeywords(getKeywordMatcher(keywords))) {
+            matchingTasks.add(taskList.getTask(index));
+        }
+        return matchingTasks;
+    }
+
+    /**
+     * Parses which part of the list to show, either a range like "200-400" or a page like "page 3".
+     *
+     * @param argument Text after the list command
+     * @param pageSize Number of tasks on a page
+     * @return Zero-based start index and the index after the end, not limited to the list size
+     * @throws LukeException If the argument is not a valid range or page
+     */
+    public static int[] parseListRange(String argument, int pageSize) throws LukeException {
+        String trimmed = argument.trim();
+        if (trimmed.startsWith(LIST_PAGE_PREFIX)) {
+            long page = parseNumber(trimmed.substring(LIST_PAGE_PREFIX.length()));
+            if (page < 1 || page > Integer.MAX_VALUE / pageSize) {
+                throw new LukeException("Please give me a valid page number! Try again.");
+            }
+            return new int[] {(int) (page - 1) * pageSize, (int) page * pageSize};
+        }
+
+        String[] bounds = trimmed.split(RANGE_SEPARATOR, -1);
+        if (bounds.length != 2) {
+            throw new LukeException("Please give a range like 'list 200-400' or a page like 'list page 3'!");
+        }
+        long from = parseNumber(bounds[0]);
+        long to = parseNumber(bounds[1]);
+        if (from < 1 || to < from || to > Integer.MAX_VALUE) {
+            throw new LukeException("Please give me a valid task number or range! Try again.");
+        }
+        return new int[] {(int) from - 1, (int) to};
+    }
 
-        for (int i = 0; i < taskList.size(); i++) {
-            Task task = taskList.getTask(i);
-            String description = task.getDescription().toLowerCase();
+    /**
+     * Checks whether a command argument selects several tasks rather than one.
+     *
+     * @param argument Text after the command, e.g. "3", "#12", "1-500", "3,5,9-20" or "done"
+     * @return true if the argument is a range, a list or "done"
+     */
+    public static boolean isTaskSelection(String argument) {
+        return argument.contains(SELECTION_SEPARATOR) || argument.contains(RANGE_SEPARATOR)
+                || argument.equals(SELECT_DONE);
+    }
+
+    /**
+     * Parses a selection of tasks, such as "3,5,9-20", "1-500", "#4,#7" or "done".
+     * Numbers are 1-based list positions, "#" marks an ID, and "done" selects every done task.
+     *
+     * @param selection The selection to parse
+     * @param tasks The tasks being selected from
+     * @return Zero-based indexes of the selected tasks
+     * @throws LukeException If the selection is malformed or names a task that does not exist
+     */
+    public static BitSet parseTaskSelection(String selection, TaskList tasks) throws LukeException {
+        BitSet selected = new BitSet(tasks.size());
+        if (selection.equals(SELECT_DONE)) {
+            for (int i = 0; i < tasks.size(); i++) {
+                selected.set(i, tasks.getTask(i).isDone());
+            }
+            return selected;
+        }
 
-            for (String keyword : keywords) {
-                if (description.contains(keyword.toLowerCase())) {
-                    matchingTasks.add(task);
-                    break;  // Once we find a match, no need to check other keywords
+        for (String item : selection.split(SELECTION_SEPARATOR)) {
+            String trimmed = item.trim();
+            if (trimmed.startsWith(Task.ID_PREFIX)) {
+                int index = tasks.indexOf(parseNumber(trimmed.substring(Task.ID_PREFIX.length())));
+                if (index < 0) {
+                    throw new LukeException("No task has the ID " + trimmed + "! Try again.");
                 }
+                selected.set(index);
+                continue;
             }
+
+            selected.or(parseIndexRanges(trimmed, 1, tasks.size()));
         }
+        return selected;
+    }
 
-        return matchingTasks;
+    /**
+     * Parses comma-separated numbers and inclusive ranges, e.g. "3,5,9-20".
+     *
+     * @param ranges The numbers and ranges to parse
+     * @param firstIndex The number that stands for index 0
+     * @param size Number of tasks; every index named must be below this
+     * @return The indexes named
+     * @throws LukeException If a number or range is malformed, below firstIndex or past the last task
+     */
+    public static BitSet parseIndexRanges(String ranges, int firstIndex, int size) throws LukeException {
+        BitSet indexes = new BitSet();
+        for (String item : ranges.split(SELECTION_SEPARATOR)) {
+            String[] bounds = item.trim().split(RANGE_SEPARATOR, -1);
+            if (bounds.length > 2) {
+                throw new LukeException("Please give me a valid task number or range! Try again.");
+            }
+            long from = parseNumber(bounds[0]) - firstIndex;
+            long to = bounds.length == 2 ? parseNumber(bounds[1]) - firstIndex : from;
+            if (from < 0 || to < from) {
+                throw new LukeException("Please give me a valid task number or range! Try again.");
+            }
+            if (to >= size) { // Checked before setting, so a huge range can't allocate a huge BitSet
+                throw new LukeException("That task number does not exist! Try again.");
+            }
+            indexes.set((int) from, (int) to + 1);
+        }
+        return indexes;
+    }
+
+    /**
+     * Formats indexes as comma-separated numbers and ranges, the reverse of parseIndexRanges.
+     *
+     * @param indexes The indexes to format
+     * @param firstIndex The number that stands for index 0
+     * @return Text like "3,5,9-20"
+     */
+    public static String formatIndexRanges(BitSet indexes, int firstIndex) {
+        StringBuilder ranges = new StringBuilder();
+        int from = indexes.nextSetBit(0);
+        while (from >= 0) {
+            int to = indexes.nextClearBit(from) - 1;
+            if (ranges.length() > 0) {
+                ranges.append(SELECTION_SEPARATOR);
+            }
+            ranges.append(from + firstIndex);
+            if (to > from) {
+                ranges.append(RANGE_SEPARATOR).append(to + firstIndex);
+            }
+            from = indexes.nextSetBit(to + 1);
+        }
+        return ranges.toString();
+    }
+
+    /**
+     * Reads a task number or ID from text[start] up to the next space or the end of the text.
+     *
+     * @param text Text holding the number, such as a command argument
+     * @param start Index where the number starts
+     * @return The number
+     * @throws LukeException If there is no number there, or it is too long
+     */
+    public static long parseTaskNumber(String text, int start) throws LukeException {
+        int end = digitsEnd(text, start, text.length());
+        if (end == start || end - start > MAX_TASK_NUMBER_DIGITS || (end < text.length() && text.charAt(end) != ' ')) {
+            throw new LukeException("Please give me a valid task number! Try again.");
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static long parseNumber(String number) throws LukeException {
+        try {
+            return Long.parseLong(number.trim());
+        } catch (NumberFormatException e) {
+            throw new LukeException("Please give me a valid task number! Try again.");
+        }
+    }
+
+    /**
+     * Gets a matcher for a set of keywords, reusing the last one if the keywords are the same.
+     *
+     * @param keywords Keywords to match, ignoring case
+     * @return Matcher for the keywords
+     */
+    public static KeywordMatcher getKeywordMatcher(String... keywords) {
+        CachedMatcher cached = lastMatcher;
+        if (cached != null && Arrays.equals(cached.keywords, keywords)) {
+            return cached.matcher;
+        }
+
+        KeywordMatcher matcher = new KeywordMatcher(keywords);
+        lastMatcher = new CachedMatcher(keywords.clone(), matcher);
+        return matcher;
+    }
+
+    /**
+     * A keyword matcher together with the keywords it was built from.
+     */
+    private static class CachedMatcher {
+        private final String[] keywords;
+        private final KeywordMatcher matcher;
+
+        CachedMatcher(String[] keywords, KeywordMatcher matcher) {
+            this.keywords = keywords;
+            this.matcher = matcher;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package luke;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for sorting the task list.
+ * Only filled in and committed while a recording has the event enabled.
+ */
+@Name("luke.Sort")
+@Label("Sort")
+@Category("Luke")
+@Description("The task list was sorted")
+class SortEvent extends Event {
+    @Label("Criteria")
+    String criteria;
+
+    @Label("Task Count")
+    int taskCount;
+
+    @Label("View Reused")
+    @Description("Whether the sorted view was already built, so only the list had to be rewritten")
+    boolean isViewReused;
+}
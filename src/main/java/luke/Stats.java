@@ -0,0 +1,88 @@
+package luke;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms for each command and storage phase, and the number of bytes saved,
+ * kept for the whole run. Histograms are named like "command.mark" or "storage.save.sync".
+ */
+public class Stats {
+    private static final ConcurrentHashMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final AtomicLong BYTES_WRITTEN = new AtomicLong();
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private Stats() {
+    }
+
+    /**
+     * Gets the histogram with a name, creating it the first time.
+     * Callers keep the histogram, so recording does not have to look it up.
+     *
+     * @param name Name of what is measured
+     * @return The histogram for that name
+     */
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Adds to the number of bytes written to the save file and journal.
+     *
+     * @param bytes Number of bytes just written
+     */
+    public static void addBytesWritten(long bytes) {
+        BYTES_WRITTEN.addAndGet(bytes);
+    }
+
+    /**
+     * Formats every histogram with measurements as a table, in milliseconds.
+     *
+     * @return One line per histogram, then the number of bytes written
+     */
+    public static String format() {
+        StringBuilder table = new StringBuilder(String.format("%-24s %8s %10s %10s %10s%n",
+                "Latency (ms)", "count", "p50", "p99", "max"));
+        for (Map.Entry<String, LatencyHistogram> entry : getSortedHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            table.append(String.format("%-24s %8d %10.3f %10.3f %10.3f%n", entry.getKey(), histogram.getCount(),
+                    histogram.getPercentile(50) / NANOS_PER_MILLI, histogram.getPercentile(99) / NANOS_PER_MILLI,
+                    histogram.getMax() / NANOS_PER_MILLI));
+        }
+        return table.append("Bytes written: ").append(BYTES_WRITTEN.get()).toString();
+    }
+
+    /**
+     * Formats every histogram with measurements as a single line of JSON, in nanoseconds.
+     *
+     * @return JSON like {"bytesWritten":10,"latencies":{"command.list":{"count":1,...}}}
+     */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{\"bytesWritten\":").append(BYTES_WRITTEN.get())
+                .append(",\"latencies\":{");
+        String separator = "";
+        for (Map.Entry<String, LatencyHistogram> entry : getSortedHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            json.append(separator).append('"').append(entry.getKey()).append("\":{")
+                    .append("\"count\":").append(histogram.getCount())
+                    .append(",\"totalNanos\":").append(histogram.getTotal())
+                    .append(",\"p50Nanos\":").append(histogram.getPercentile(50))
+                    .append(",\"p99Nanos\":").append(histogram.getPercentile(99))
+                    .append(",\"maxNanos\":").append(histogram.getMax()).append('}');
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+
+    private static TreeMap<String, LatencyHistogram> getSortedHistograms() {
+        TreeMap<String, LatencyHistogram> sorted = new TreeMap<>();
+        HISTOGRAMS.forEach((name, histogram) -> {
+            if (histogram.getCount() > 0) {
+                sorted.put(name, histogram);
+            }
+        });
+        return sorted;
+    }
+}
@@ -1,25 +1,121 @@
 package luke;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
 
 /**
  * Handles saving and loading tasks from file.
+ * Tasks are saved as text lines by default, or in the compact format of
+ * {@link BinarySnapshot}; either format is detected when loading.
+ * Saves are written to a temporary file first and then renamed over the save file,
+ * so a crash mid-save never leaves a half-written list behind. Every save ends with a
+ * trailer line holding the next task ID and a checksum of the rest of the file. The next
+ * ID keeps IDs of deleted tasks from being handed out again after a restart, and the
+ * checksum means a temporary file left by a crash is only used if it was written completely.
+ * In journal mode, each change is appended to a small journal file next to
+ * the save file instead of rewriting the whole list.
  */
 public class Storage {
+    // System properties used to configure journal mode
+    private static final String JOURNAL_PROPERTY = "luke.storage.journal";
+    private static final String COMPACTION_THRESHOLD_PROPERTY = "luke.storage.journal.compactBytes";
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 64 * 1024;
+
+    // Set to "binary" to save in the binary format
+    private static final String FORMAT_PROPERTY = "luke.storage.format";
+    private static final String FORMAT_BINARY = "binary";
+
+    // Save files at least this large are decoded on several threads
+    private static final String PARALLEL_LOAD_PROPERTY = "luke.storage.parallelLoadBytes";
+    private static final long DEFAULT_PARALLEL_LOAD_THRESHOLD = 32 * 1024 * 1024;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String FIELD_SEPARATOR = " | ";
+
+    // Last line of every save file: "#END ", the next task ID as 16 hex digits, a space,
+    // and the CRC32 of everything before the CRC32 as 8 hex digits
+    static final String TRAILER_PREFIX = "#END ";
+    private static final int NEXT_ID_DIGITS = 16;
+    private static final int CHECKSUM_DIGITS = 8;
+    private static final int TRAILER_SIZE = TRAILER_PREFIX.length() + NEXT_ID_DIGITS + 1 + CHECKSUM_DIGITS + 1;
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+    // Journal record kinds
+    private static final String RECORD_BASE = "C"; // Checksum of the save file the journal applies to
+    private static final String RECORD_ADD = "+";
+    private static final String RECORD_DELETE = "-";
+    private static final String RECORD_MARK = "M";
+    private static final String RECORD_SORT = "S";
+
+    // Latency of each phase of loading and saving
+    private static final LatencyHistogram LOAD_READ_LATENCY = Stats.histogram("storage.load.read");
+    private static final LatencyHistogram LOAD_REPLAY_LATENCY = Stats.histogram("storage.load.replay");
+    private static final LatencyHistogram SAVE_WRITE_LATENCY = Stats.histogram("storage.save.write");
+    private static final LatencyHistogram SAVE_SYNC_LATENCY = Stats.histogram("storage.save.sync");
+    private static final LatencyHistogram SAVE_RENAME_LATENCY = Stats.histogram("storage.save.rename");
+    private static final LatencyHistogram JOURNAL_APPEND_LATENCY = Stats.histogram("storage.journal.append");
+
     private final String filePath;
+    private final Path savePath;
+    private final Path tempPath;
+    private final Path journalPath;
+    private final boolean isBinaryFormat;
+    private final boolean isJournalEnabled;
+    private final long compactionThreshold;
+    private final long parallelLoadThreshold;
+    private long journalBytes;
+    private long nextId = Task.NO_ID + 1; // Lowest ID not handed out yet, as far as this storage has seen
 
     /**
      * Creates a storage handler with specified file path.
-     * Makes a data folder if it doesn't exist yet.
+     * The save format and journal mode are taken from the {@code luke.storage.format}
+     * and {@code luke.storage.journal} system properties.
      *
      * @param filePath Path to the save file
      */
     public Storage(String filePath) {
+        this(filePath, FORMAT_BINARY.equals(System.getProperty(FORMAT_PROPERTY)),
+                Boolean.getBoolean(JOURNAL_PROPERTY),
+                Long.getLong(COMPACTION_THRESHOLD_PROPERTY, DEFAULT_COMPACTION_THRESHOLD));
+    }
+
+    /**
+     * Creates a storage handler with specified file path.
+     * Makes a data folder if it doesn't exist yet.
+     *
+     * @param filePath Path to the save file
+     * @param isBinaryFormat Whether to save in the binary format instead of text
+     * @param isJournalEnabled Whether changes are appended to a journal
+     * @param compactionThreshold Journal size in bytes after which it is folded into the save file
+     */
+    public Storage(String filePath, boolean isBinaryFormat, boolean isJournalEnabled, long compactionThreshold) {
         this.filePath = filePath;
+        this.savePath = Paths.get(filePath);
+        this.tempPath = Paths.get(filePath + TEMP_SUFFIX);
+        this.journalPath = Paths.get(filePath + JOURNAL_SUFFIX);
+        this.isBinaryFormat = isBinaryFormat;
+        this.isJournalEnabled = isJournalEnabled;
+        this.compactionThreshold = compactionThreshold;
+        this.parallelLoadThreshold = Long.getLong(PARALLEL_LOAD_PROPERTY, DEFAULT_PARALLEL_LOAD_THRESHOLD);
         File directory = new File("./data");
         if (!directory.exists()) {
             directory.mkdir();
@@ -28,6 +124,10 @@ public class Storage {
 
     /**
      * Loads tasks from the save file.
+     * Large save files are read in parallel chunks.
+     * A save interrupted by a crash is cleaned up first, and any journal
+     * left over from the last run is replayed on top of the save file and then
+     * folded into it, so each run's journal starts from the order the run began with.
      *
      * @return List of tasks from the file
      * @throws LukeException If file can't be read
@@ -35,52 +135,80 @@ public class Storage {
     public ArrayList<Task> load() throws LukeException {
         ArrayList<Task> tasks = new ArrayList<>();
         try {
-            File file = new File(filePath);
-            if (!file.exists()) {
-                return tasks;
-            }
-
-            Scanner fileScanner = new Scanner(file);
-            while (fileScanner.hasNextLine()) {
-                try {
-                    String line = fileScanner.nextLine();
-                    if (line.trim().isEmpty()) {
-                        continue; // Skip empty lines
-                    }
-
-                    String[] parts = line.split(" \\| ");
-                    if (parts.length < 3) {
-                        System.out.println("Warning: Skipping invalid line: " + line);
-                        continue; // Skip invalid lines
-                    }
+            StorageEvent event = new StorageEvent();
+            event.begin();
+            long startTime = System.nanoTime();
+            recoverTempFile();
 
-                    Task task = new Task(parts[2], parts[0]);
-                    if (parts[1].equals("1")) {
-                        task.markAsDone();
+            long bytesRead = 0;
+            if (Files.exists(savePath)) {
+                try (FileChannel channel = FileChannel.open(savePath, StandardOpenOption.READ)) {
+                    bytesRead = channel.size();
+                    Trailer trailer = readTrailer(channel);
+                    if (trailer != null) {
+                        nextId = Math.max(nextId, trailer.nextId);
                     }
-                    if (parts.length > 3) {
-                        task.setTime(parts[3]);
+                    if (BinarySnapshot.isBinary(channel)) {
+                        tasks = BinarySnapshot.read(channel);
+                    } else if (channel.size() >= parallelLoadThreshold) {
+                        tasks = TaskFileReader.readParallel(channel, ForkJoinPool.commonPool());
+                    } else {
+                        tasks = TaskFileReader.read(channel);
                     }
-                    tasks.add(task);
-                } catch (Exception e) {
-                    // If one line fails, continue with the rest
-                    System.out.println("Warning: Error parsing line in save file");
                 }
             }
-            fileScanner.close();
+
+            long readEndTime = System.nanoTime();
+            LOAD_READ_LATENCY.record(readEndTime - startTime);
+            boolean isReplayed = replayJournal(tasks);
+            LOAD_REPLAY_LATENCY.record(System.nanoTime() - readEndTime);
+            commitEvent(event, StorageEvent.OPERATION_LOAD, bytesRead, tasks.size());
+            if (!isReplayed) {
+                return tasks;
+            }
         } catch (IOException e) {
             throw new LukeException("Something went wrong loading the file!");
         }
+        save(tasks);
         return tasks;
     }
 
     /**
-     * Saves tasks to the save file.
+     * Gets the lowest ID that has not been handed out to a task, as saved with the tasks
+     * or seen since. Call after {@link #load()} to keep IDs of deleted tasks from being reused.
+     *
+     * @return The next task ID
+     */
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Saves tasks to the save file, along with the highest next task ID this storage has seen.
      *
      * @param tasks List of tasks to save
      * @throws LukeException If file can't be written
      */
     public void save(ArrayList<Task> tasks) throws LukeException {
+        save(tasks, nextId);
+    }
+
+    /**
+     * Saves tasks to the save file.
+     * The tasks are written and synced to a temporary file, which then atomically
+     * replaces the save file. A full save makes any existing journal redundant,
+     * so it is removed.
+     *
+     * @param tasks List of tasks to save
+     * @param listNextId The ID the task list will give its next task
+     * @throws LukeException If file can't be written
+     */
+    public void save(ArrayList<Task> tasks, long listNextId) throws LukeException {
+        nextId = Math.max(nextId, listNextId);
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+
         try {
             // Make sure the data directory exists
             File directory = new File("./data");
@@ -91,18 +219,561 @@ public class Storage {
                 }
             }
 
-            FileWriter writer = new FileWriter(filePath);
-            for (Task task : tasks) {
-                // Format: TYPE | IS_DONE | DESCRIPTION | TIME
-                writer.write(task.getType() + " | " +
-                        (task.isDone() ? "1" : "0") + " | " +
-                        task.getDescription() +
-                        (task.getTime().isEmpty() ? "" : " | " + task.getTime()) +
-                        "\n");
+            StorageEvent event = new StorageEvent();
+            event.begin();
+            long startTime = System.nanoTime();
+            long bytesWritten;
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ChecksumChannel body = new ChecksumChannel(channel);
+                if (isBinaryFormat) {
+                    BinarySnapshot.write(body, tasks);
+                } else {
+                    writeText(body, tasks);
+                }
+                writeTrailer(body, channel, nextId);
+                long writeEndTime = System.nanoTime();
+                SAVE_WRITE_LATENCY.record(writeEndTime - startTime);
+                bytesWritten = channel.position();
+                Stats.addBytesWritten(bytesWritten);
+
+                channel.force(true);
+                startTime = System.nanoTime();
+                SAVE_SYNC_LATENCY.record(startTime - writeEndTime);
+            }
+            Files.move(tempPath, savePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+
+            Files.deleteIfExists(journalPath);
+            journalBytes = 0;
+            SAVE_RENAME_LATENCY.record(System.nanoTime() - startTime);
+            commitEvent(event, StorageEvent.OPERATION_SAVE, bytesWritten, tasks.size());
+        } catch (IOException e) {
+            throw new LukeException("Something went wrong saving the file!");
+        }
+    }
+
+    /**
+     * Writes tasks as text lines. The channel is left open so it can be synced.
+     */
+    private static void writeText(WritableByteChannel channel, ArrayList<Task> tasks) throws IOException {
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        for (Task task : tasks) {
+            writer.write(formatTask(task));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Records that a task was added to the end of the list.
+     *
+     * @param tasks Current list of tasks, including the new one
+     * @param task The task that was added
+     * @throws LukeException If the change can't be written
+     */
+    public void recordAdd(ArrayList<Task> tasks, Task task) throws LukeException {
+        nextId = Math.max(nextId, task.getId() + 1);
+        recordChange(tasks, RECORD_ADD + FIELD_SEPARATOR + formatTask(task));
+    }
+
+    /**
+     * Records that a task was marked or unmarked.
+     *
+     * @param tasks Current list of tasks
+     * @param index Zero-based index of the changed task
+     * @throws LukeException If the change can't be written
+     */
+    public void recordMark(ArrayList<Task> tasks, int index) throws LukeException {
+        Task task = tasks.get(index);
+        recordChange(tasks, RECORD_MARK + FIELD_SEPARATOR + task.getId()
+                + FIELD_SEPARATOR + (task.isDone() ? "1" : "0"));
+    }
+
+    /**
+     * Records that a task was deleted.
+     *
+     * @param tasks Current list of tasks, without the deleted one
+     * @param id ID of the deleted task
+     * @throws LukeException If the change can't be written
+     */
+    public void recordDelete(ArrayList<Task> tasks, long id) throws LukeException {
+        recordChange(tasks, RECORD_DELETE + FIELD_SEPARATOR + id);
+    }
+
+    /**
+     * Records that several tasks were marked or unmarked at once.
+     *
+     * @param tasks Current list of tasks
+     * @param indexes Zero-based indexes of the changed tasks
+     * @param isDone Whether the tasks were marked as done
+     * @throws LukeException If the change can't be written
+     */
+    public void recordMarks(ArrayList<Task> tasks, BitSet indexes, boolean isDone) throws LukeException {
+        long[] ids = new long[indexes.cardinality()];
+        int count = 0;
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            ids[count++] = tasks.get(i).getId();
+        }
+        recordChange(tasks, RECORD_MARK + FIELD_SEPARATOR + formatIds(ids) + FIELD_SEPARATOR + (isDone ? "1" : "0"));
+    }
+
+    /**
+     * Records that several tasks were deleted at once.
+     *
+     * @param tasks Current list of tasks, without the deleted ones
+     * @param ids IDs of the deleted tasks
+     * @throws LukeException If the change can't be written
+     */
+    public void recordDeletes(ArrayList<Task> tasks, long[] ids) throws LukeException {
+        recordChange(tasks, RECORD_DELETE + FIELD_SEPARATOR + formatIds(ids));
+    }
+
+    /**
+     * Records that the list was sorted.
+     * Without a journal, sorting is only saved with the next change, as before.
+     *
+     * @param tasks Current list of tasks, already sorted
+     * @param criteria Sort criteria ("date", "description" or "type")
+     * @throws LukeException If the change can't be written
+     */
+    public void recordSort(ArrayList<Task> tasks, String criteria) throws LukeException {
+        if (isJournalEnabled) {
+            recordChange(tasks, RECORD_SORT + FIELD_SEPARATOR + criteria);
+        }
+    }
+
+    /**
+     * Appends a record to the journal, or saves the whole list when journal mode is off.
+     * The journal is compacted into the save file once it grows past the threshold.
+     */
+    private void recordChange(ArrayList<Task> tasks, String record) throws LukeException {
+        if (!isJournalEnabled) {
+            save(tasks);
+            return;
+        }
+
+        String records = record + "\n";
+        if (journalBytes == 0) {
+            records = formatBaseRecord() + "\n" + records;
+        }
+
+        byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        try {
+            Files.write(journalPath, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new LukeException("Something went wrong saving the file!");
+        }
+        JOURNAL_APPEND_LATENCY.record(System.nanoTime() - startTime);
+        commitEvent(event, StorageEvent.OPERATION_JOURNAL, bytes.length, 1);
+        Stats.addBytesWritten(bytes.length);
+        journalBytes += bytes.length;
+
+        if (journalBytes > compactionThreshold) {
+            save(tasks);
+        }
+    }
+
+    private void commitEvent(StorageEvent event, String operation, long bytes, int records) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.file = savePath.toString();
+            event.bytes = bytes;
+            event.records = records;
+            event.commit();
+        }
+    }
+
+    /**
+     * Cleans up after a save that was interrupted by a crash.
+     * The rename is the last step of a save, so a leftover temporary file is not needed
+     * whenever the save file exists. It is only kept if there is nothing else to load
+     * and its checksum shows it was written completely.
+     */
+    private void recoverTempFile() throws IOException {
+        if (!Files.exists(tempPath)) {
+            return;
+        }
+
+        if (!Files.exists(savePath) && isComplete(tempPath)) {
+            System.out.println("Warning: Recovering save file from last run");
+            Files.move(tempPath, savePath, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+        } else {
+            System.out.println("Warning: Discarding incomplete save from last run");
+            Files.delete(tempPath);
+        }
+    }
+
+    /**
+     * Makes a rename in the save file's folder durable, so it survives a crash.
+     * Some platforms can't open folders for syncing; there the rename is left to the OS.
+     */
+    private void syncDirectory() {
+        Path directory = savePath.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported here, e.g. on Windows
+        }
+    }
+
+    /**
+     * Writes the trailer. The next ID goes through the checksummed body channel,
+     * so the checksum covers it too.
+     */
+    private static void writeTrailer(ChecksumChannel body, FileChannel channel, long nextId) throws IOException {
+        writeAscii(body, TRAILER_PREFIX + String.format("%016x", nextId) + " ");
+        writeAscii(channel, formatChecksum(body.getChecksum()) + "\n");
+    }
+
+    private static void writeAscii(WritableByteChannel channel, String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a save file's trailer.
+     *
+     * @return The trailer, or null if the file does not end with one
+     */
+    private static Trailer readTrailer(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < TRAILER_SIZE) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(TRAILER_SIZE);
+        while (buffer.hasRemaining() && channel.read(buffer, size - TRAILER_SIZE + buffer.position()) > 0) {
+            // Keep reading until the trailer is in
+        }
+        String trailer = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+        int checksumStart = TRAILER_SIZE - CHECKSUM_DIGITS - 1;
+        if (trailer.length() != TRAILER_SIZE || !trailer.startsWith(TRAILER_PREFIX)
+                || trailer.charAt(checksumStart - 1) != ' ' || !trailer.endsWith("\n")) {
+            return null;
+        }
+        try {
+            long nextId = Long.parseLong(trailer.substring(TRAILER_PREFIX.length(), checksumStart - 1), 16);
+            long checksum = Long.parseLong(trailer.substring(checksumStart, TRAILER_SIZE - 1), 16);
+            return new Trailer(nextId, checksum);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that a save file ends with a trailer whose checksum matches the rest of the file.
+     */
+    private static boolean isComplete(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Trailer trailer = readTrailer(channel);
+            return trailer != null
+                    && computeChecksum(channel, channel.size() - CHECKSUM_DIGITS - 1) == trailer.checksum;
+        }
+    }
+
+    /**
+     * Computes the CRC32 of the first bytes of a file.
+     */
+    private static long computeChecksum(FileChannel channel, long size) throws IOException {
+        CRC32 checksum = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+        long position = 0;
+        while (position < size) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), size - position));
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                break;
             }
-            writer.close();
+            position += count;
+            checksum.update(buffer.flip());
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Gets the checksum that identifies the current save file, so a journal can tell
+     * whether it was written against it. This is the trailer's checksum, which takes
+     * no more than reading the trailer. Files saved before trailers are checksummed whole.
+     *
+     * @return The checksum, or 0 if there is no save file
+     */
+    private long getSaveFileChecksum() throws IOException {
+        if (!Files.exists(savePath)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(savePath, StandardOpenOption.READ)) {
+            Trailer trailer = readTrailer(channel);
+            return trailer != null ? trailer.checksum : computeChecksum(channel, channel.size());
+        }
+    }
+
+    /**
+     * Formats the record that starts a journal, naming the save file it applies to.
+     */
+    private String formatBaseRecord() throws LukeException {
+        try {
+            return RECORD_BASE + FIELD_SEPARATOR + formatChecksum(getSaveFileChecksum());
         } catch (IOException e) {
             throw new LukeException("Something went wrong saving the file!");
         }
     }
-}
\ No newline at end of file
+
+    private static String formatChecksum(long checksum) {
+        return String.format("%08x", checksum);
+    }
+
+    /**
+     * Checks whether a journal's base record names the current save file.
+     */
+    private boolean isJournalBase(String baseRecord) throws IOException {
+        String[] parts = baseRecord.split(" \\| ");
+        if (parts.length != 2) {
+            return false;
+        }
+        return parts[1].equals(formatChecksum(getSaveFileChecksum()));
+    }
+
+    /**
+     * Applies every record in the journal to the loaded tasks.
+     * Records that can't be applied, such as a half-written last line, are skipped.
+     * A journal written against a different save file, which happens when Luke stops
+     * between compacting and removing the journal, is discarded. The save file is
+     * identified by its checksum, so a compacted file of the same size is told apart.
+     *
+     * @return true if any records were replayed
+     */
+    private boolean replayJournal(ArrayList<Task> tasks) throws IOException {
+        if (!Files.exists(journalPath)) {
+            journalBytes = 0;
+            return false;
+        }
+
+        List<String> records = Files.readAllLines(journalPath, StandardCharsets.UTF_8);
+        if (!records.isEmpty() && records.get(0).startsWith(RECORD_BASE + FIELD_SEPARATOR)) {
+            if (!isJournalBase(records.get(0))) {
+                System.out.println("Warning: Discarding journal that does not match the save file");
+                Files.delete(journalPath);
+                journalBytes = 0;
+                return false;
+            }
+            records = records.subList(1, records.size());
+        }
+
+        // Replayed through one TaskList so sorts break ties the same way they did when recorded
+        TaskList taskList = new TaskList(tasks, nextId);
+        for (String record : records) {
+            try {
+                if (!applyRecord(taskList, record.split(" \\| "))) {
+                    System.out.println("Warning: Skipping invalid journal record: " + record);
+                }
+            } catch (LukeException | RuntimeException e) {
+                System.out.println("Warning: Error replaying journal record: " + record);
+            }
+        }
+        nextId = taskList.getNextId(); // Covers tasks the journal added and then deleted
+        journalBytes = Files.size(journalPath);
+        return !records.isEmpty();
+    }
+
+    /**
+     * Applies one journal record.
+     * Delete and mark records name tasks by ID, either one or several like "3,5,9-20",
+     * so they still find the right tasks whatever order the list was in.
+     *
+     * @return true if the record was understood, false otherwise
+     */
+    private boolean applyRecord(TaskList taskList, String[] parts) throws LukeException {
+        switch (parts[0]) {
+            case RECORD_ADD:
+                Task task = parseTask(parts, 1);
+                if (task == null) {
+                    return false;
+                }
+                taskList.addTask(task);
+                return true;
+            case RECORD_DELETE:
+                BitSet deleted = findTasks(taskList, parts[1]);
+                if (deleted == null) {
+                    return false;
+                }
+                taskList.deleteTasks(deleted);
+                return true;
+            case RECORD_MARK:
+                BitSet marked = findTasks(taskList, parts[1]);
+                if (marked == null) {
+                    return false;
+                }
+                taskList.markTasks(marked, parts[2].equals("1"));
+                return true;
+            case RECORD_SORT:
+                return applySort(taskList, parts[1]);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Formats task IDs as comma-separated IDs and inclusive ranges, e.g. "3,5,9-20".
+     */
+    private static String formatIds(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        StringBuilder ranges = new StringBuilder();
+        int from = 0;
+        while (from < sorted.length) {
+            int to = from;
+            while (to + 1 < sorted.length && sorted[to + 1] == sorted[to] + 1) {
+                to++;
+            }
+            if (ranges.length() > 0) {
+                ranges.append(',');
+            }
+            ranges.append(sorted[from]);
+            if (to > from) {
+                ranges.append('-').append(sorted[to]);
+            }
+            from = to + 1;
+        }
+        return ranges.toString();
+    }
+
+    /**
+     * Finds the tasks named by IDs formatted by formatIds.
+     *
+     * @return Zero-based indexes of the tasks, or null if any of the IDs is not in the list
+     */
+    private static BitSet findTasks(TaskList taskList, String ids) {
+        BitSet indexes = new BitSet();
+        for (String item : ids.split(",")) {
+            String[] bounds = item.split("-", -1);
+            long from = Long.parseLong(bounds[0]);
+            long to = bounds.length == 2 ? Long.parseLong(bounds[1]) : from;
+            if (bounds.length > 2 || to < from || to - from >= taskList.size()) {
+                return null; // A range can't name more tasks than there are
+            }
+            for (long id = from; id <= to; id++) {
+                int index = taskList.indexOf(id);
+                if (index < 0) {
+                    return null;
+                }
+                indexes.set(index);
+            }
+        }
+        return indexes;
+    }
+
+    private boolean applySort(TaskList taskList, String criteria) {
+        switch (criteria) {
+            case "date":
+                taskList.sortByDate();
+                return true;
+            case "description":
+                taskList.sortByDescription();
+                return true;
+            case "type":
+                taskList.sortByType();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Creates a task from its saved fields.
+     *
+     * @param parts Fields of a saved line
+     * @param offset Index of the first field within parts: the ID, or the type in files saved before IDs
+     * @return The task, or null if there are too few fields
+     */
+    private static Task parseTask(String[] parts, int offset) {
+        long id = Task.NO_ID;
+        if (parts.length > offset && parts[offset].startsWith(Task.ID_PREFIX)) {
+            id = Long.parseLong(parts[offset].substring(Task.ID_PREFIX.length()));
+            offset++;
+        }
+        if (parts.length < offset + 3) {
+            return null;
+        }
+
+        Task task = new Task(parts[offset + 2], parts[offset]);
+        task.setId(id);
+        if (parts[offset + 1].equals("1")) {
+            task.markAsDone();
+        }
+        if (parts.length > offset + 4) {
+            task.setTime(parts[offset + 3], Long.parseLong(parts[offset + 4]));
+        } else if (parts.length > offset + 3) {
+            task.setTime(parts[offset + 3]);
+        }
+        return task;
+    }
+
+    /**
+     * Formats a task as a saved line, without the line break.
+     * Format: #ID | TYPE | IS_DONE | DESCRIPTION | TIME | EPOCH_MINUTES
+     * The epoch minutes are only written for dated tasks. They keep the minutes,
+     * which the time as shown leaves out.
+     */
+    static String formatTask(Task task) {
+        return Task.ID_PREFIX + task.getId() + FIELD_SEPARATOR +
+                task.getType() + FIELD_SEPARATOR +
+                (task.isDone() ? "1" : "0") + FIELD_SEPARATOR +
+                task.getDescription() +
+                (task.getTime().isEmpty() ? "" : FIELD_SEPARATOR + task.getTime()) +
+                (task.hasDate() ? FIELD_SEPARATOR + task.getEpochMinutes() : "");
+    }
+
+    /**
+     * The fields of a save file's trailer.
+     */
+    private static class Trailer {
+        private final long nextId;
+        private final long checksum;
+
+        Trailer(long nextId, long checksum) {
+            this.nextId = nextId;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Passes writes through to a channel while keeping a CRC32 of every byte written.
+     */
+    private static class ChecksumChannel implements WritableByteChannel {
+        private final WritableByteChannel channel;
+        private final CRC32 checksum = new CRC32();
+
+        ChecksumChannel(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        long getChecksum() {
+            return checksum.getValue();
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            ByteBuffer written = source.duplicate();
+            int count = channel.write(source);
+            checksum.update(written.limit(written.position() + count));
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package luke;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for loading the save file, saving it, or appending to the journal.
+ * Only filled in and committed while a recording has the event enabled.
+ */
+@Name("luke.Storage")
+@Label("Storage")
+@Category("Luke")
+@Description("A load, save or journal append")
+class StorageEvent extends Event {
+    static final String OPERATION_LOAD = "load";
+    static final String OPERATION_SAVE = "save";
+    static final String OPERATION_JOURNAL = "journal";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("File")
+    @Description("Save file the operation was for")
+    String file;
+
+    @Label("Bytes")
+    @Description("Bytes read from or written to disk")
+    @DataAmount
+    long bytes;
+
+    @Label("Records")
+    @Description("Tasks loaded or saved, or journal records appended")
+    int records;
+}
@@ -10,10 +10,22 @@ public class Task {
     public static final String TYPE_DEADLINE = "D";
     public static final String TYPE_EVENT = "E";
 
+    // Epoch minutes of a task that has no date
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    // ID of a task that has not been added to a list yet
+    public static final long NO_ID = 0;
+
+    // Written before an ID in save files and commands, e.g. "#12"
+    public static final String ID_PREFIX = "#";
+
     private String description;
     private boolean isDone;
     private String type;  // "T", "D", or "E"
-    private String time;  // For deadlines and events
+    private String time;  // For deadlines and events, as shown to the user
+    private long epochMinutes; // The same time as minutes since the epoch, for sorting
+    private long id; // Stays the same across sorts, deletes and restarts
+    private int position; // Index in the task list that holds the task, kept up to date by the list
 
     /**
      * Creates a new task.
@@ -26,6 +38,7 @@ public class Task {
         this.isDone = false;
         this.type = type;
         this.time = "";
+        this.epochMinutes = NO_DATE;
     }
 
     /**
@@ -64,13 +77,79 @@ public class Task {
         return time;
     }
 
+    /**
+     * Gets the task time/date as minutes since the epoch.
+     *
+     * @return Minutes since 1970-01-01 00:00, or NO_DATE if the task has no date
+     */
+    public long getEpochMinutes() {
+        return epochMinutes;
+    }
+
+    /**
+     * Checks if the task's time is a date that can be compared.
+     *
+     * @return true if the task has a date, false otherwise
+     */
+    public boolean hasDate() {
+        return getEpochMinutes() != NO_DATE;
+    }
+
     /**
      * Sets the task time/date.
+     * Formatted dates are converted to epoch minutes; other text has no date.
      *
      * @param time Time string to set
      */
     public void setTime(String time) {
+        setTime(time, Parser.toEpochMinutes(time));
+    }
+
+    /**
+     * Sets the task time/date when its epoch minutes are already known.
+     *
+     * @param time Time string to show
+     * @param epochMinutes The same time as minutes since the epoch, or NO_DATE
+     */
+    public void setTime(String time, long epochMinutes) {
         this.time = time;
+        this.epochMinutes = epochMinutes;
+    }
+
+    /**
+     * Gets the task's ID. IDs are handed out in the order tasks are added.
+     *
+     * @return The ID, or NO_ID if the task has not been added to a list
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the task's ID. Only task lists and loaders should call this.
+     *
+     * @param id The ID to use
+     */
+    void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets where the task is in its task list.
+     *
+     * @return Zero-based index in the list
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * Sets where the task is in its task list. Only task lists should call this.
+     *
+     * @param position Zero-based index in the list
+     */
+    void setPosition(int position) {
+        this.position = position;
     }
 
     /**
@@ -93,7 +172,7 @@ public class Task {
      * @return Status string [X] or [ ]
      */
     private String getStatusString() {
-        return isDone ? "[X]" : "[ ]";
+        return isDone() ? "[X]" : "[ ]";
     }
 
     /**
@@ -104,14 +183,16 @@ public class Task {
     @Override
     public String toString() {
         // Returns formatted task with type marker, status, and details
+        // Goes through the getters, so views over other storage format the same way
         String status = getStatusString();
+        String type = getType();
 
         if (type.equals(TYPE_TODO)) {
-            return "[T]" + status + " " + description;
+            return "[T]" + status + " " + getDescription();
         } else if (type.equals(TYPE_DEADLINE)) {
-            return "[D]" + status + " " + description + " (by: " + time + ")";
+            return "[D]" + status + " " + getDescription() + " (by: " + getTime() + ")";
         } else {
-            return "[E]" + status + " " + description + " (from: " + time + ")";
+            return "[E]" + status + " " + getDescription() + " (from: " + getTime() + ")";
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,380 @@
+package luke;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads tasks in the save file format straight from the file's bytes.
+ * Lines and " | " separated fields are found by scanning the buffer by hand,
+ * so the only objects created are the tasks and their strings.
+ * Large files can be split into line-aligned chunks that are read in parallel.
+ */
+public class TaskFileReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 6; // #ID | TYPE | IS_DONE | DESCRIPTION | TIME | EPOCH_MINUTES
+    private static final int CHUNKS_PER_THREAD = 4; // Extra chunks let fast threads steal work
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final byte[] TRAILER_PREFIX = Storage.TRAILER_PREFIX.getBytes(StandardCharsets.US_ASCII);
+
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+
+    /**
+     * Reads every task in a file.
+     *
+     * @param channel Channel to read from, positioned at the start of the file
+     * @return List of tasks in file order
+     * @throws IOException If the file can't be read
+     */
+    public static ArrayList<Task> read(FileChannel channel) throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        new TaskFileReader().readLines(channel, 0, channel.size(), tasks);
+        return tasks;
+    }
+
+    /**
+     * Reads every task in a file using several threads.
+     * The file is split into chunks that end on line breaks, each chunk is decoded
+     * on the pool, and the chunks are joined back together in file order.
+     *
+     * @param channel Channel to read from
+     * @param pool Pool to decode the chunks on
+     * @return List of tasks in file order
+     * @throws IOException If the file can't be read
+     */
+    public static ArrayList<Task> readParallel(FileChannel channel, ForkJoinPool pool) throws IOException {
+        long[] boundaries = findChunkBoundaries(channel, pool.getParallelism() * CHUNKS_PER_THREAD);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayList<Task>[] chunks = new ArrayList[boundaries.length - 1];
+
+        ChunkReader reader = new ChunkReader(channel, boundaries, chunks, 0, chunks.length);
+        pool.invoke(reader);
+        if (reader.failure != null) {
+            throw reader.failure;
+        }
+
+        int total = 0;
+        for (ArrayList<Task> chunk : chunks) {
+            total += chunk.size();
+        }
+        ArrayList<Task> tasks = new ArrayList<>(total);
+        for (ArrayList<Task> chunk : chunks) {
+            tasks.addAll(chunk);
+        }
+        return tasks;
+    }
+
+    /**
+     * Splits the file into roughly equal chunks that each start at the beginning of a line.
+     *
+     * @return Sorted chunk boundaries, starting with 0 and ending with the file size
+     */
+    private static long[] findChunkBoundaries(FileChannel channel, int chunkCount) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, size / chunkCount + 1);
+
+        ArrayList<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+
+        while (position < size) {
+            long lineStart = findNextLineStart(channel, position, probe);
+            if (lineStart >= size) {
+                break;
+            }
+            boundaries.add(lineStart);
+            position = lineStart + chunkSize;
+        }
+        boundaries.add(size);
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position just after the first line break at or after the given position.
+     */
+    private static long findNextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int count = channel.read(probe, position);
+            if (count < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < count; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += count;
+        }
+    }
+
+    /**
+     * Reads the lines in [start, end) of the channel, adding a task for each valid one.
+     * The range must begin at the start of a line.
+     */
+    private void readLines(FileChannel channel, long start, long end, ArrayList<Task> tasks) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(end - start, 1)));
+        long position = start;
+        boolean isEndOfFile = false;
+
+        while (!isEndOfFile) {
+            int wanted = (int) Math.min(buffer.remaining(), end - position);
+            ByteBuffer window = buffer.slice().limit(wanted);
+            int count = wanted == 0 ? -1 : channel.read(window, position);
+            if (count > 0) {
+                position += count;
+                buffer.position(buffer.position() + count);
+            }
+            isEndOfFile = count < 0 || position >= end;
+            byte[] bytes = buffer.array();
+            int limit = buffer.position();
+            int lineStart = 0;
+
+            for (int i = 0; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    parseLine(bytes, lineStart, i, tasks);
+                    lineStart = i + 1;
+                }
+            }
+
+            if (isEndOfFile) {
+                parseLine(bytes, lineStart, limit, tasks); // Last line may lack a line break
+            } else if (lineStart == 0 && limit == bytes.length) {
+                // A single line fills the whole buffer, so make room for the rest of it
+                ByteBuffer larger = ByteBuffer.allocate(bytes.length * 2);
+                larger.put(bytes, 0, limit);
+                buffer = larger;
+            } else {
+                // Keep the unfinished line at the front of the buffer
+                buffer.position(lineStart);
+                buffer.limit(limit);
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * Parses the line in bytes[start, end) and adds its task to the list.
+     * The ID field is optional, since files saved before IDs don't have it, and so are
+     * the epoch minutes; without them the date is read back from the time as shown.
+     * Blank lines and the checksum trailer are skipped, and lines with fewer than three
+     * other fields or a bad ID are reported and skipped, just like the old line-based loader.
+     */
+    private void parseLine(byte[] bytes, int start, int end, ArrayList<Task> tasks) {
+        try {
+            parseFields(bytes, start, end, tasks);
+        } catch (Exception e) {
+            // If one line fails, continue with the rest
+            System.out.println("Warning: Error parsing line in save file");
+        }
+    }
+
+    private void parseFields(byte[] bytes, int start, int end, ArrayList<Task> tasks) {
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        if (isBlank(bytes, start, end) || isTrailer(bytes, start, end)) {
+            return;
+        }
+
+        int fieldCount = splitFields(bytes, start, end);
+        boolean hasId = fieldCount > 0 && fieldEnds[0] > fieldStarts[0] && bytes[fieldStarts[0]] == '#';
+        int first = hasId ? 1 : 0;
+        long id = hasId ? decodeId(bytes) : Task.NO_ID;
+        if (fieldCount - first < 3 || id < 0) {
+            String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            System.out.println("Warning: Skipping invalid line: " + line);
+            return;
+        }
+
+        Task task = new Task(decodeField(bytes, first + 2), decodeType(bytes, first));
+        task.setId(id);
+        if (fieldEnds[first + 1] - fieldStarts[first + 1] == 1 && bytes[fieldStarts[first + 1]] == '1') {
+            task.markAsDone();
+        }
+        long epochMinutes = fieldCount - first > 4 ? decodeEpochMinutes(bytes, first + 4) : Task.NO_DATE;
+        if (epochMinutes != Task.NO_DATE) {
+            task.setTime(decodeField(bytes, first + 3), epochMinutes);
+        } else if (fieldCount - first > 3) {
+            task.setTime(decodeField(bytes, first + 3));
+        }
+        tasks.add(task);
+    }
+
+    /**
+     * Parses a field holding epoch minutes, which may be negative for dates before 1970.
+     *
+     * @return The epoch minutes, or Task.NO_DATE if the field is not a valid number
+     */
+    private long decodeEpochMinutes(byte[] bytes, int field) {
+        int start = fieldStarts[field];
+        boolean isNegative = start < fieldEnds[field] && bytes[start] == '-';
+        if (isNegative) {
+            start++;
+        }
+        int length = fieldEnds[field] - start;
+        if (length < 1 || length > 18) {
+            return Task.NO_DATE;
+        }
+
+        long value = 0;
+        for (int i = start; i < fieldEnds[field]; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return Task.NO_DATE;
+            }
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Parses the digits after the '#' of the current line's first field.
+     *
+     * @return The ID, or -1 if the field is not a valid ID
+     */
+    private long decodeId(byte[] bytes) {
+        int length = fieldEnds[0] - fieldStarts[0] - 1;
+        if (length < 1 || length > 18) {
+            return -1;
+        }
+
+        long id = 0;
+        for (int i = fieldStarts[0] + 1; i < fieldEnds[0]; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return -1;
+            }
+            id = id * 10 + (bytes[i] - '0');
+        }
+        return id;
+    }
+
+    /**
+     * Finds the " | " separated fields of a line and records the first few.
+     * Like String.split, trailing empty fields are not counted.
+     *
+     * @return Number of fields, up to MAX_FIELDS
+     */
+    private int splitFields(byte[] bytes, int start, int end) {
+        int fieldCount = 0;
+        int nonEmptyCount = 0;
+        int fieldStart = start;
+
+        for (int i = start; i <= end; i++) {
+            boolean isSeparator = i + 2 < end && bytes[i] == ' ' && bytes[i + 1] == '|' && bytes[i + 2] == ' ';
+            if (!isSeparator && i < end) {
+                continue;
+            }
+
+            if (fieldCount < MAX_FIELDS) {
+                fieldStarts[fieldCount] = fieldStart;
+                fieldEnds[fieldCount] = i;
+            }
+            fieldCount++;
+            if (i > fieldStart) {
+                nonEmptyCount = fieldCount;
+            }
+
+            i += 2;
+            fieldStart = i + 1;
+        }
+
+        return Math.min(nonEmptyCount, MAX_FIELDS);
+    }
+
+    /**
+     * Returns the type of the current line, reusing the shared constants for known types.
+     */
+    private String decodeType(byte[] bytes, int field) {
+        if (fieldEnds[field] - fieldStarts[field] == 1) {
+            switch (bytes[fieldStarts[field]]) {
+                case 'T':
+                    return Task.TYPE_TODO;
+                case 'D':
+                    return Task.TYPE_DEADLINE;
+                case 'E':
+                    return Task.TYPE_EVENT;
+                default:
+                    break;
+            }
+        }
+        return decodeField(bytes, field);
+    }
+
+    private String decodeField(byte[] bytes, int field) {
+        return new String(bytes, fieldStarts[field], fieldEnds[field] - fieldStarts[field], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a run of chunks, splitting the run in half until one chunk is left.
+     */
+    private static class ChunkReader extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final ArrayList<Task>[] chunks;
+        private final int from;
+        private final int to;
+        private IOException failure;
+
+        ChunkReader(FileChannel channel, long[] boundaries, ArrayList<Task>[] chunks, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ChunkReader left = new ChunkReader(channel, boundaries, chunks, from, middle);
+                ChunkReader right = new ChunkReader(channel, boundaries, chunks, middle, to);
+                invokeAll(left, right);
+                failure = left.failure != null ? left.failure : right.failure;
+                return;
+            }
+
+            ArrayList<Task> chunk = new ArrayList<>();
+            try {
+                new TaskFileReader().readLines(channel, boundaries[from], boundaries[from + 1], chunk);
+            } catch (IOException e) {
+                failure = e;
+            }
+            chunks[from] = chunk;
+        }
+    }
+
+    private static boolean isTrailer(byte[] bytes, int start, int end) {
+        if (end - start < TRAILER_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < TRAILER_PREFIX.length; i++) {
+            if (bytes[start + i] != TRAILER_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0 || bytes[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
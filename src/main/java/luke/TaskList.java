@@ -1,12 +1,37 @@
 package luke;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.TreeSet;
 
 /**
  * Manages a list of tasks.
+ * Search indexes and sorted views are built the first time they are needed and then kept up to date.
  */
 public class TaskList {
-    private ArrayList<Task> tasks;
+    // Sort orders. Tasks that sort equally stay in the order they were added, which is ID order.
+    private static final Comparator<Task> BY_ID = Comparator.comparingLong(Task::getId);
+    private static final Comparator<Task> BY_DATE = ((Comparator<Task>) TaskList::compareByDate)
+            .thenComparing(BY_ID);
+    private static final Comparator<Task> BY_DESCRIPTION =
+            Comparator.comparing(Task::getDescription, String.CASE_INSENSITIVE_ORDER).thenComparing(BY_ID);
+    private static final Comparator<Task> BY_TYPE = Comparator.comparing(Task::getType).thenComparing(BY_ID);
+
+    private final ArrayList<Task> tasks;
+    private final HashMap<Long, Task> tasksById = new HashMap<>();
+    private long version; // Bumped on every change so savers can tell the list is dirty
+    private long nextId = Task.NO_ID + 1;
+
+    private KeywordIndex keywordIndex; // Built on the first whole-word search
+    private TrigramIndex trigramIndex; // Built on the first substring search
+
+    // Tasks in each sort order, built on the first sort of that kind
+    private TreeSet<Task> dateView;
+    private TreeSet<Task> descriptionView;
+    private TreeSet<Task> typeView;
 
     /**
      * Creates a new empty task list.
@@ -17,20 +42,70 @@ public class TaskList {
 
     /**
      * Creates a task list with existing tasks.
+     * Tasks keep the IDs they were saved with. Tasks from older save files have none,
+     * so they are given new IDs in list order, as are any tasks whose ID is taken.
      *
      * @param tasks The list of tasks to start with
      */
     public TaskList(ArrayList<Task> tasks) {
+        this(tasks, Task.NO_ID + 1);
+    }
+
+    /**
+     * Creates a task list with existing tasks that were saved along with the next ID to hand out.
+     * New tasks get IDs from there on, so IDs of tasks deleted before the save are not reused.
+     *
+     * @param tasks The list of tasks to start with
+     * @param savedNextId The saved next ID; IDs above every task's are used if it is lower
+     */
+    public TaskList(ArrayList<Task> tasks, long savedNextId) {
         this.tasks = tasks;
+        nextId = Math.max(nextId, savedNextId);
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task.getId() == Task.NO_ID || tasksById.containsKey(task.getId())) {
+                task.setId(nextId++);
+            }
+            tasksById.put(task.getId(), task);
+            task.setPosition(i);
+        }
     }
 
     /**
      * Adds a task to the list.
+     * The task keeps its ID if it has one that is free, and is given a new one otherwise.
      *
      * @param task The task to add
      */
     public void addTask(Task task) {
+        if (task.getId() == Task.NO_ID || tasksById.containsKey(task.getId())) {
+            task.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        tasksById.put(task.getId(), task);
+        task.setPosition(tasks.size());
         tasks.add(task);
+        version++;
+
+        if (keywordIndex != null) {
+            keywordIndex.add(task);
+        }
+        if (trigramIndex != null) {
+            trigramIndex.add(task);
+        }
+        if (dateView != null) {
+            dateView.add(task);
+        }
+        if (descriptionView != null) {
+            descriptionView.add(task);
+        }
+        if (typeView != null) {
+            typeView.add(task);
+        }
     }
 
     /**
@@ -39,7 +114,57 @@ public class TaskList {
      * @param index The index of the task to remove
      */
     public void deleteTask(int index) {
-        tasks.remove(index);
+        Task task = tasks.remove(index);
+        version++;
+        forget(task);
+        updatePositions(index); // Every later task has moved up by one
+    }
+
+    /**
+     * Removes several tasks from the list in one pass.
+     * The remaining tasks are shifted down once, instead of once per deleted task.
+     *
+     * @param indexes Zero-based indexes of the tasks to remove
+     * @return The number of tasks removed
+     */
+    public int deleteTasks(BitSet indexes) {
+        int kept = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (indexes.get(i)) {
+                forget(task);
+            } else {
+                task.setPosition(kept);
+                tasks.set(kept++, task);
+            }
+        }
+
+        int removed = tasks.size() - kept;
+        tasks.subList(kept, tasks.size()).clear();
+        version++;
+        return removed;
+    }
+
+    /**
+     * Removes a task from the ID map, search indexes and sorted views.
+     */
+    private void forget(Task task) {
+        tasksById.remove(task.getId());
+        if (keywordIndex != null) {
+            keywordIndex.remove(task);
+        }
+        if (trigramIndex != null) {
+            trigramIndex.remove(task);
+        }
+        if (dateView != null) {
+            dateView.remove(task);
+        }
+        if (descriptionView != null) {
+            descriptionView.remove(task);
+        }
+        if (typeView != null) {
+            typeView.remove(task);
+        }
     }
 
     /**
@@ -52,6 +177,27 @@ public class TaskList {
         return tasks.get(index);
     }
 
+    /**
+     * Gets a task by its ID.
+     *
+     * @param id The ID of the task
+     * @return The task, or null if no task has that ID
+     */
+    public Task getTaskById(long id) {
+        return tasksById.get(id);
+    }
+
+    /**
+     * Finds where a task is in the list.
+     *
+     * @param id The ID of the task
+     * @return Zero-based index of the task, or -1 if no task has that ID
+     */
+    public int indexOf(long id) {
+        Task task = tasksById.get(id);
+        return task == null ? -1 : task.getPosition();
+    }
+
     /**
      * Gets the number of tasks in the list.
      *
@@ -79,13 +225,35 @@ public class TaskList {
         return tasks;
     }
 
+    /**
+     * Gets the ID the next task added will get. IDs only ever go up, so this is
+     * saved with the list to keep deleted tasks' IDs from being handed out again.
+     *
+     * @return The next ID
+     */
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Gets the version of the list, which changes whenever the list is modified.
+     * Callers must hold the lock on this list when reading it from another thread.
+     *
+     * @return The current version
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Marks a task as done.
+     * Being done is not part of any sort order, so the sorted views are unaffected.
      *
      * @param index The index of the task to mark as done
      */
     public void markTaskAsDone(int index) {
         tasks.get(index).markAsDone();
+        version++;
     }
 
     /**
@@ -95,41 +263,224 @@ public class TaskList {
      */
     public void markTaskAsNotDone(int index) {
         tasks.get(index).markAsNotDone();
+        version++;
+    }
+
+    /**
+     * Marks several tasks as done or not done.
+     *
+     * @param indexes Zero-based indexes of the tasks to change
+     * @param isDone true to mark the tasks as done, false to mark them as not done
+     */
+    public void markTasks(BitSet indexes, boolean isDone) {
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            if (isDone) {
+                tasks.get(i).markAsDone();
+            } else {
+                tasks.get(i).markAsNotDone();
+            }
+        }
+        version++;
     }
 
     /**
      * Sorts tasks by their date/time (for deadline and event tasks).
-     * Tasks without dates come first.
+     * Tasks without times come first, then dated tasks from earliest to latest,
+     * then tasks whose time is free text such as "sunday".
      */
     public void sortByDate() {
-        tasks.sort((t1, t2) -> {
-            // Tasks without dates first
-            if (t1.getTime().isEmpty() && !t2.getTime().isEmpty()) {
-                return -1;
-            }
-            if (!t1.getTime().isEmpty() && t2.getTime().isEmpty()) {
-                return 1;
-            }
-            if (t1.getTime().isEmpty() && t2.getTime().isEmpty()) {
-                return 0;
-            }
-            // Otherwise compare dates
-            return t1.getTime().compareTo(t2.getTime());
-        });
+        SortEvent event = new SortEvent();
+        event.begin();
+        boolean isViewReused = dateView != null;
+        if (!isViewReused) {
+            dateView = buildView(BY_DATE);
+        }
+        reorder(dateView);
+        commitSortEvent(event, "date", isViewReused);
     }
 
     /**
-     * Sorts tasks alphabetically by description.
+     * Sorts tasks alphabetically by description, ignoring case.
      */
     public void sortByDescription() {
-        tasks.sort((t1, t2) -> t1.getDescription().compareToIgnoreCase(t2.getDescription()));
+        SortEvent event = new SortEvent();
+        event.begin();
+        boolean isViewReused = descriptionView != null;
+        if (!isViewReused) {
+            descriptionView = buildView(BY_DESCRIPTION);
+        }
+        reorder(descriptionView);
+        commitSortEvent(event, "description", isViewReused);
     }
 
     /**
      * Sorts tasks by type (todo, deadline, event).
-     * Maintains stable ordering within each type.
      */
     public void sortByType() {
-        tasks.sort((t1, t2) -> t1.getType().compareTo(t2.getType()));
+        SortEvent event = new SortEvent();
+        event.begin();
+        boolean isViewReused = typeView != null;
+        if (!isViewReused) {
+            typeView = buildView(BY_TYPE);
+        }
+        reorder(typeView);
+        commitSortEvent(event, "type", isViewReused);
+    }
+
+    private void commitSortEvent(SortEvent event, String criteria, boolean isViewReused) {
+        if (event.shouldCommit()) {
+            event.criteria = criteria;
+            event.taskCount = tasks.size();
+            event.isViewReused = isViewReused;
+            event.commit();
+        }
+    }
+
+    private static int compareByDate(Task t1, Task t2) {
+        int rank1 = getDateRank(t1);
+        int rank2 = getDateRank(t2);
+        if (rank1 != rank2) {
+            return Integer.compare(rank1, rank2);
+        }
+        if (t1.hasDate()) {
+            return Long.compare(t1.getEpochMinutes(), t2.getEpochMinutes());
+        }
+        return t1.getTime().compareTo(t2.getTime());
+    }
+
+    private static int getDateRank(Task task) {
+        if (task.getTime().isEmpty()) {
+            return 0;
+        }
+        return task.hasDate() ? 1 : 2;
+    }
+
+    private TreeSet<Task> buildView(Comparator<Task> order) {
+        // Inserting in sorted order is much faster than inserting in list order
+        ArrayList<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(order);
+        TreeSet<Task> view = new TreeSet<>(order);
+        view.addAll(sorted);
+        return view;
+    }
+
+    /**
+     * Rewrites the list in the order of a view, which takes linear time since the view is already sorted.
+     */
+    private void reorder(TreeSet<Task> view) {
+        tasks.clear();
+        tasks.addAll(view);
+        version++;
+        updatePositions(0);
+    }
+
+    /**
+     * Finds tasks whose descriptions contain the keyword anywhere, ignoring case.
+     * Keywords of three or more characters are looked up in the trigram index;
+     * shorter or very common ones are matched by scanning the list.
+     *
+     * @param keyword Keyword to search for
+     * @return Zero-based indexes of matching tasks, in list order
+     */
+    public ArrayList<Integer> findByKeyword(String keyword) {
+        FindEvent event = new FindEvent();
+        event.begin();
+        ArrayList<Integer> matches = findBySubstring(keyword.toLowerCase());
+        commitFindEvent(event, FindEvent.CRITERIA_SUBSTRING, keyword, matches.size());
+        return matches;
+    }
+
+    private ArrayList<Integer> findBySubstring(String lowerKeyword) {
+        if (lowerKeyword.length() >= TrigramIndex.MIN_KEYWORD_LENGTH) {
+            if (trigramIndex == null) {
+                trigramIndex = new TrigramIndex();
+                for (Task task : tasks) {
+                    trigramIndex.add(task);
+                }
+            }
+            ArrayList<Task> candidates = trigramIndex.find(lowerKeyword);
+            if (candidates != null) {
+                return toSortedIndexes(candidates);
+            }
+        }
+
+        ArrayList<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getDescription().toLowerCase().contains(lowerKeyword)) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds tasks whose descriptions contain any of a set of keywords.
+     *
+     * @param matcher Matcher built from the keywords
+     * @return Zero-based indexes of matching tasks, in list order
+     */
+    public ArrayList<Integer> findByKeywords(KeywordMatcher matcher) {
+        FindEvent event = new FindEvent();
+        event.begin();
+        ArrayList<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (matcher.matches(tasks.get(i).getDescription())) {
+                matches.add(i);
+            }
+        }
+        commitFindEvent(event, FindEvent.CRITERIA_ANY_KEYWORD, null, matches.size());
+        return matches;
+    }
+
+    /**
+     * Finds tasks whose descriptions contain every word of the query as a whole word,
+     * ignoring case. Answered from the keyword index rather than by scanning.
+     *
+     * @param words One or more words to search for
+     * @return Zero-based indexes of matching tasks, in list order
+     */
+    public ArrayList<Integer> findByWords(String words) {
+        FindEvent event = new FindEvent();
+        event.begin();
+        if (keywordIndex == null) {
+            keywordIndex = new KeywordIndex();
+            for (Task task : tasks) {
+                keywordIndex.add(task);
+            }
+        }
+        ArrayList<Integer> matches = toSortedIndexes(keywordIndex.findAll(words));
+        commitFindEvent(event, FindEvent.CRITERIA_WORDS, words, matches.size());
+        return matches;
+    }
+
+    private void commitFindEvent(FindEvent event, String criteria, String query, int resultSize) {
+        if (event.shouldCommit()) {
+            event.criteria = criteria;
+            event.query = query;
+            event.taskCount = tasks.size();
+            event.resultSize = resultSize;
+            event.commit();
+        }
+    }
+
+    /**
+     * Converts tasks to their current indexes, sorted in list order.
+     */
+    private ArrayList<Integer> toSortedIndexes(ArrayList<Task> matches) {
+        ArrayList<Integer> indexes = new ArrayList<>(matches.size());
+        for (Task task : matches) {
+            indexes.add(task.getPosition());
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    /**
+     * Updates the stored positions of the tasks from an index to the end of the list.
+     */
+    private void updatePositions(int from) {
+        for (int i = from; i < tasks.size(); i++) {
+            tasks.get(i).setPosition(i);
+        }
     }
-}
\ No newline at end of file
+}
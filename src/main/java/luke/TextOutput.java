@@ -0,0 +1,74 @@
+package luke;
+
+/**
+ * Collects a command's response as text, for showing as a single GUI message.
+ * Lines are separated by newlines, with none at the end.
+ */
+public class TextOutput implements OutputSink {
+    private final StringBuilder text = new StringBuilder();
+    private final int maxTaskLines;
+    private boolean isExit;
+
+    /**
+     * Creates an empty response.
+     *
+     * @param maxTaskLines The most task lines a response may show
+     */
+    public TextOutput(int maxTaskLines) {
+        this.maxTaskLines = maxTaskLines;
+    }
+
+    @Override
+    public void showMessage(Object message) {
+        startLine();
+        text.append(message);
+    }
+
+    @Override
+    public void showTask(int index, Task task) {
+        startLine();
+        text.append(index).append('.').append(task).append(' ').append(Task.ID_PREFIX).append(task.getId());
+    }
+
+    @Override
+    public void showBye() {
+        showMessage("Goodbye! Hope to see you again soon!");
+    }
+
+    @Override
+    public int getMaxTaskLines() {
+        return maxTaskLines;
+    }
+
+    /**
+     * Checks whether the command asked the application to exit.
+     *
+     * @return true if the command was bye
+     */
+    public boolean isExit() {
+        return isExit;
+    }
+
+    /**
+     * Records whether the command asked the application to exit.
+     *
+     * @param isExit What the command returned
+     */
+    public void setExit(boolean isExit) {
+        this.isExit = isExit;
+    }
+
+    /**
+     * Gets the response collected so far.
+     */
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    private void startLine() {
+        if (text.length() > 0) {
+            text.append('\n');
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package luke;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Maps every three-character substring of lower-cased task descriptions to the
+ * tasks containing it, so substring searches only have to check a few candidates.
+ *
+ * <p>Posting lists are append-only. Deleted tasks are remembered and skipped
+ * until they make up half the index, at which point the lists are compacted.</p>
+ */
+public class TrigramIndex {
+    /** Keywords shorter than this can't be looked up and need a full scan. */
+    public static final int MIN_KEYWORD_LENGTH = 3;
+
+    // A keyword whose rarest trigram is in more than this share of tasks is cheaper to scan for
+    private static final int SELECTIVE_FRACTION = 8;
+
+    private final HashMap<Long, ArrayList<Task>> postings = new HashMap<>();
+    private HashSet<Task> removed = new HashSet<>();
+    private int size;
+
+    /**
+     * Adds a task's trigrams to the index.
+     *
+     * @param task The task to add
+     */
+    public void add(Task task) {
+        for (long trigram : trigrams(task.getDescription().toLowerCase())) {
+            postings.computeIfAbsent(trigram, key -> new ArrayList<>(1)).add(task);
+        }
+        size++;
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The task to remove
+     */
+    public void remove(Task task) {
+        removed.add(task);
+        size--;
+        if (removed.size() > size) {
+            compact();
+        }
+    }
+
+    /**
+     * Finds tasks whose lower-cased descriptions contain the keyword.
+     *
+     * @param lowerKeyword Lower-case keyword, at least MIN_KEYWORD_LENGTH characters long
+     * @return Matching tasks in no particular order, or null if the keyword is so
+     *     common that scanning the list would be faster
+     */
+    public ArrayList<Task> find(String lowerKeyword) {
+        ArrayList<Task> rarest = null;
+        for (long trigram : trigrams(lowerKeyword)) {
+            ArrayList<Task> tasks = postings.get(trigram);
+            if (tasks == null) {
+                return new ArrayList<>(); // No task has this trigram
+            }
+            if (rarest == null || tasks.size() < rarest.size()) {
+                rarest = tasks;
+            }
+        }
+
+        if (rarest.size() > size / SELECTIVE_FRACTION + removed.size()) {
+            return null;
+        }
+
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Task task : rarest) {
+            if (task.getDescription().toLowerCase().contains(lowerKeyword) && !removed.contains(task)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Drops deleted tasks from every posting list.
+     */
+    private void compact() {
+        postings.values().removeIf(tasks -> {
+            tasks.removeIf(removed::contains);
+            tasks.trimToSize();
+            return tasks.isEmpty();
+        });
+        removed = new HashSet<>();
+    }
+
+    /**
+     * Packs each run of three characters into a long.
+     *
+     * @param text Text to split
+     * @return Distinct trigrams of the text
+     */
+    private static long[] trigrams(String text) {
+        if (text.length() < MIN_KEYWORD_LENGTH) {
+            return new long[0];
+        }
+
+        long[] trigrams = new long[text.length() - MIN_KEYWORD_LENGTH + 1];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+}
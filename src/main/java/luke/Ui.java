@@ -1,37 +1,57 @@
 package luke;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
 import java.util.Scanner;
 
 /**
- * Handles user interaction
+ * Handles user interaction.
+ * Output is buffered and only written out when {@link #flush()} is called,
+ * or when the next command is read.
  */
-public class Ui {
+public class Ui implements OutputSink {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     private Scanner scanner;
+    private PrintWriter out;
 
     /**
      * Creates a new UI handler.
      */
     public Ui() {
         scanner = new Scanner(System.in);
+        out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, Charset.defaultCharset()), OUTPUT_BUFFER_SIZE), false);
     }
 
     /**
      * Reads a command from the user.
+     * Anything still buffered is written out first, so the user sees it before typing.
      *
      * @return The command entered by the user
      */
     public String readCommand() {
+        flush();
         return scanner.nextLine();
     }
 
+    /**
+     * Writes out everything shown since the last flush.
+     */
+    public void flush() {
+        out.flush();
+    }
+
     /**
      * Shows the welcome message with app name and instructions.
      * It is the first message users see when starting the app.
      */
     public void showWelcome() {
         showLine();
-        System.out.println("Hello! I'm Luke");
-        System.out.println("What can I do for you today?");
+        out.println("Hello! I'm Luke");
+        out.println("What can I do for you today?");
         showLine();
     }
 
@@ -39,21 +59,21 @@ public class Ui {
      * Shows a separator line.
      */
     public void showLine() {
-        System.out.println("____________________________________________________________");
+        out.println("____________________________________________________________");
     }
 
     /**
      * Shows an error message for file loading issues.
      */
     public void showLoadingError() {
-        System.out.println("Something went wrong loading the file!");
+        out.println("Something went wrong loading the file!");
     }
 
     /**
      * Shows an error message for file saving issues.
      */
     public void showSavingError() {
-        System.out.println("Something went wrong saving the file!");
+        out.println("Something went wrong saving the file!");
     }
 
     /**
@@ -62,14 +82,27 @@ public class Ui {
      * @param message The error message to display
      */
     public void showError(String message) {
-        System.out.println("ERROR: " + message);
+        out.print("ERROR: ");
+        out.println(message);
     }
 
     /**
      * Shows the goodbye message.
      */
+    @Override
     public void showBye() {
-        System.out.println("Bye. Hope to see you again!!");
+        out.println("Bye. Hope to see you again!!");
+        flush();
+    }
+
+    /**
+     * Shows a message.
+     *
+     * @param message The message to display
+     */
+    @Override
+    public void showMessage(Object message) {
+        out.println(message);
     }
 
     /**
@@ -77,9 +110,36 @@ public class Ui {
      *
      * @param messages The messages to display
      */
-    public void showMessages(String... messages) {
-        for (String message : messages) {
-            System.out.println(message);
+    @Override
+    public void showMessages(Object... messages) {
+        for (Object message : messages) {
+            out.println(message);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Shows a task with its position in the list and its ID.
+     *
+     * @param index 1-based index to display
+     * @param task Task to display
+     */
+    @Override
+    public void showTask(int index, Task task) {
+        out.print(index);
+        out.print('.');
+        out.print(task);
+        out.print(' ');
+        out.print(Task.ID_PREFIX);
+        out.println(task.getId());
+    }
+
+    /**
+     * The console shows every task asked for.
+     *
+     * @return Integer.MAX_VALUE
+     */
+    @Override
+    public int getMaxTaskLines() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,166 @@
+package luke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ColumnarTaskListTest {
+    private static final String[] WORDS = {"read", "book", "essay", "Party", "gym", "report"};
+
+    @Test
+    public void randomChanges_sameResultsAsTaskList() throws LukeException {
+        Random random = new Random(42);
+        ArrayList<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            initial.add(createTask(random, i));
+        }
+        ArrayList<Task> copies = new ArrayList<>();
+        for (Task task : initial) {
+            copies.add(copy(task));
+        }
+        TaskList expected = new TaskList(initial, 7);
+        TaskList actual = new ColumnarTaskList(copies, 7);
+
+        for (int step = 0; step < 3000; step++) {
+            int action = random.nextInt(10);
+            if (action < 3 || expected.isEmpty()) {
+                Task task = createTask(random, step);
+                expected.addTask(task);
+                actual.addTask(copy(task));
+            } else if (action == 3) {
+                int index = random.nextInt(expected.size());
+                expected.deleteTask(index);
+                actual.deleteTask(index);
+            } else if (action == 4) {
+                BitSet indexes = randomIndexes(random, expected.size());
+                assertEquals(expected.deleteTasks(indexes), actual.deleteTasks(indexes));
+            } else if (action == 5) {
+                int index = random.nextInt(expected.size());
+                expected.markTaskAsDone(index);
+                actual.markTaskAsDone(index);
+            } else if (action == 6) {
+                BitSet indexes = randomIndexes(random, expected.size());
+                boolean isDone = random.nextBoolean();
+                expected.markTasks(indexes, isDone);
+                actual.markTasks(indexes, isDone);
+            } else if (action == 7) {
+                expected.sortByDate();
+                actual.sortByDate();
+            } else if (action == 8) {
+                expected.sortByDescription();
+                actual.sortByDescription();
+            } else {
+                expected.sortByType();
+                actual.sortByType();
+            }
+
+            assertEquals(format(expected), format(actual));
+            assertEquals(expected.getNextId(), actual.getNextId());
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, actual.indexOf(expected.getTask(i).getId()));
+        }
+        for (String word : WORDS) {
+            assertEquals(expected.findByKeyword(word), actual.findByKeyword(word));
+            assertEquals(expected.findByWords(word), actual.findByWords(word));
+        }
+        KeywordMatcher matcher = new KeywordMatcher("essay", "gym");
+        assertEquals(expected.findByKeywords(matcher), actual.findByKeywords(matcher));
+    }
+
+    @Test
+    public void getTask_viewOfDeletedTask_stillReadsTask() {
+        ColumnarTaskList taskList = new ColumnarTaskList();
+        taskList.addTask(new Task("read book", Task.TYPE_TODO));
+        taskList.addTask(new Task("write essay", Task.TYPE_TODO));
+
+        Task deleted = taskList.getTask(0);
+        taskList.deleteTask(0);
+
+        assertEquals("read book", deleted.getDescription());
+        assertEquals(1, deleted.getId());
+        assertEquals(-1, taskList.indexOf(1));
+        assertEquals(0, taskList.indexOf(2));
+    }
+
+    @Test
+    public void getTask_viewMarkedAsDone_changesList() {
+        ColumnarTaskList taskList = new ColumnarTaskList();
+        taskList.addTask(new Task("read book", Task.TYPE_TODO));
+
+        taskList.getTask(0).markAsDone();
+
+        assertTrue(taskList.getTaskById(1).isDone());
+    }
+
+    @Test
+    public void addTask_afterManyDeletes_reclaimsRowsAndKeepsIds() {
+        ColumnarTaskList taskList = new ColumnarTaskList();
+        for (int i = 0; i < 1000; i++) {
+            taskList.addTask(new Task("task " + i, Task.TYPE_TODO));
+            if (i % 3 != 0) {
+                taskList.deleteTask(taskList.size() - 1);
+            }
+        }
+
+        assertEquals(334, taskList.size());
+        for (int i = 0; i < taskList.size(); i++) {
+            Task task = taskList.getTask(i);
+            assertEquals("task " + (task.getId() - 1), task.getDescription());
+            assertEquals(i, taskList.indexOf(task.getId()));
+        }
+    }
+
+    private static Task createTask(Random random, int number) throws LukeException {
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + number;
+        switch (random.nextInt(4)) {
+            case 0:
+                return new Task(description, Task.TYPE_TODO);
+            case 1:
+                return Parser.parseDeadline("deadline " + description + " /by "
+                        + (1 + random.nextInt(28)) + "/" + (1 + random.nextInt(12)) + "/"
+                        + (2019 + random.nextInt(3)) + " " + String.format("%02d%02d", random.nextInt(24),
+                        random.nextInt(60)));
+            case 2:
+                Task event = new Task(description, Task.TYPE_EVENT);
+                event.setTime(random.nextBoolean() ? "sunday" : "Mon after lunch");
+                return event;
+            default:
+                Task saved = new Task(description, Task.TYPE_DEADLINE);
+                saved.setId(1 + random.nextInt(300)); // Sometimes taken, so a new ID is given
+                return saved;
+        }
+    }
+
+    private static Task copy(Task task) {
+        Task copy = new Task(task.getDescription(), task.getType());
+        copy.setId(task.getId());
+        copy.setTime(task.getTime(), task.getEpochMinutes());
+        if (task.isDone()) {
+            copy.markAsDone();
+        }
+        return copy;
+    }
+
+    private static BitSet randomIndexes(Random random, int size) {
+        BitSet indexes = new BitSet();
+        for (int i = 0; i < size; i++) {
+            indexes.set(i, random.nextInt(8) == 0);
+        }
+        return indexes;
+    }
+
+    private static String format(TaskList taskList) {
+        StringBuilder text = new StringBuilder();
+        for (Task task : taskList.getTasks()) {
+            text.append(task.getId()).append(' ').append(task).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package luke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class KeywordMatcherTest {
+    // Letters whose lower case differs between one char at a time and whole strings are mixed in
+    private static final String[] PIECES = {"a", "b", "A", "B", "i", "I", "s", " ", "\u0130", "\u0131",
+        "i\u0307", "\u03A3", "\u03C3", "\u03C2", "\u00DF", "\u00C4", "\u00E4", "\u212A", "\uD801\uDC00",
+        "\uD801\uDC28"};
+    private static final String GREEK_TEXT = "\u039F\u0394\u039F\u03A3 \u03A4\u0395\u03A3\u03A4"; // Capitals
+
+    @Test
+    public void matches_randomText_sameAsLowerCaseContains() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 5000; trial++) {
+            String[] keywords = new String[1 + random.nextInt(3)];
+            for (int i = 0; i < keywords.length; i++) {
+                keywords[i] = createText(random, 1 + random.nextInt(3));
+            }
+            KeywordMatcher matcher = new KeywordMatcher(keywords);
+
+            for (int j = 0; j < 5; j++) {
+                String text = createText(random, random.nextInt(10));
+                assertEquals(containsAny(text, keywords), matcher.matches(text), text);
+            }
+        }
+    }
+
+    @Test
+    public void matches_dottedCapitalI_sameAsLowerCaseContains() {
+        // "\u0130stanbul" (capital I with a dot) lower-cases to "i\u0307stanbul", with a combining dot,
+        // except in Turkish and Azerbaijani, where it becomes "istanbul"
+        String lowerText = "\u0130stanbul".toLowerCase();
+        assertEquals(lowerText.contains("istanbul"), new KeywordMatcher("istanbul").matches("\u0130stanbul"));
+        assertEquals(lowerText.contains("i\u0307stanbul"),
+                new KeywordMatcher("i\u0307stanbul").matches("\u0130stanbul"));
+        assertTrue(new KeywordMatcher("\u0130STANBUL").matches("\u0130stanbul"));
+    }
+
+    @Test
+    public void matches_everyChar_sameAsLowerCaseContains() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            String text = "x" + (char) c + "x";
+            assertTrue(new KeywordMatcher(text.toLowerCase()).matches(text), "U+" + Integer.toHexString(c));
+        }
+    }
+
+    @Test
+    public void matches_capitalSigmaAtWordEnd_matchesFinalSigma() {
+        assertTrue(new KeywordMatcher("\u03BF\u03B4\u03BF\u03C2").matches(GREEK_TEXT)); // Final sigma
+        assertFalse(new KeywordMatcher("\u03BF\u03B4\u03BF\u03C3").matches(GREEK_TEXT));
+    }
+
+    @Test
+    public void matches_asciiAndLatin1_ignoresCase() {
+        KeywordMatcher matcher = new KeywordMatcher("book", "\u00C4RGER");
+
+        assertTrue(matcher.matches("Read BOOK"));
+        assertTrue(matcher.matches("kein \u00E4rger"));
+        assertFalse(matcher.matches("read boo"));
+    }
+
+    private static String createText(Random random, int pieceCount) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pieceCount; i++) {
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return text.toString();
+    }
+
+    private static boolean containsAny(String text, String[] keywords) {
+        String lowerText = text.toLowerCase();
+        for (String keyword : keywords) {
+            if (lowerText.contains(keyword.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
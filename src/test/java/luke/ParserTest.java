@@ -0,0 +1,165 @@
+package luke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ParserTest {
+    @Test
+    public void toEpochMinutes_formattedDate_roundTrips() {
+        long epochMinutes = Parser.toEpochMinutes("Dec 2 2019, 6PM");
+
+        assertEquals("Dec 2 2019, 6PM", Parser.fromEpochMinutes(epochMinutes));
+    }
+
+    @Test
+    public void toEpochMinutes_freeTextEndingInComma_noDate() {
+        assertEquals(Task.NO_DATE, Parser.toEpochMinutes("Mon after lunch,"));
+        assertEquals(Task.NO_DATE, Parser.toEpochMinutes("sunday 1 afternoon,"));
+    }
+
+    @Test
+    public void parseIndexRanges_pastLastTask_rejectedBeforeAllocating() {
+        LukeException e = assertThrows(LukeException.class, () -> Parser.parseIndexRanges("1-2000000000", 1, 10));
+
+        assertEquals("That task number does not exist! Try again.", e.getMessage());
+    }
+
+    @Test
+    public void parseIndexRanges_malformed_rejected() {
+        assertThrows(LukeException.class, () -> Parser.parseIndexRanges("5-3", 1, 10));
+        assertThrows(LukeException.class, () -> Parser.parseIndexRanges("0", 1, 10));
+        assertThrows(LukeException.class, () -> Parser.parseIndexRanges("1-2-3", 1, 10));
+    }
+
+    @Test
+    public void formatIndexRanges_parsedBack_sameIndexes() throws LukeException {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            BitSet indexes = new BitSet();
+            for (int i = 0; i < 100; i++) {
+                if (random.nextInt(3) == 0) {
+                    indexes.set(i);
+                }
+            }
+            if (indexes.isEmpty()) {
+                continue;
+            }
+
+            for (int firstIndex = 0; firstIndex <= 1; firstIndex++) {
+                String ranges = Parser.formatIndexRanges(indexes, firstIndex);
+                assertEquals(indexes, Parser.parseIndexRanges(ranges, firstIndex, 100));
+            }
+        }
+    }
+
+    @Test
+    public void formatIndexRanges_runsAndSingles_compactText() {
+        BitSet indexes = new BitSet();
+        indexes.set(2);
+        indexes.set(4);
+        indexes.set(8, 20);
+
+        assertEquals("3,5,9-20", Parser.formatIndexRanges(indexes, 1));
+    }
+
+    @Test
+    public void parseDeadline_validDateTime_setsTimeAndDate() throws LukeException {
+        Task deadline = Parser.parseDeadline("deadline return book /by 2/12/2019 1830");
+
+        assertEquals("return book", deadline.getDescription());
+        assertEquals("Dec 2 2019, 6PM", deadline.getTime());
+        assertEquals(26255190, deadline.getEpochMinutes());
+    }
+
+    @Test
+    public void parseDeadline_missingDatePart_rejected() {
+        String formatMessage = "Please use format: day/month/year time (e.g., 2/12/2019 1800)";
+
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12 1800")).getMessage());
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019")).getMessage());
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 1800")).getMessage());
+        assertThrows(LukeException.class, () -> Parser.parseDeadline("deadline return book 2/12/2019 1800"));
+    }
+
+    @Test
+    public void parseDeadline_shortOrNonNumericTime_rejected() {
+        String formatMessage = "Please use format: day/month/year time (e.g., 2/12/2019 1800)";
+
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019 180")).getMessage());
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019 1")).getMessage());
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019 18a0")).getMessage());
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019 6pm")).getMessage());
+        assertEquals(formatMessage, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by x/12/2019 1800")).getMessage());
+    }
+
+    @Test
+    public void parseDeadlineAndEvent_emptyDescription_rejected() {
+        String message = "Please tell me what the task is! Try again.";
+
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline /by 2/12/2019 1800")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline    /by 2/12/2019 1800")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event /from 2/12/2019 1400 /to 4pm")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event   /from 2/12/2019 1400 /to 4pm")).getMessage());
+    }
+
+    @Test
+    public void parseDeadlineAndEvent_dayOrMonthOutOfRange_rejected() {
+        String message = "Please give a real date, like 2/12/2019! Try again.";
+
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 32/12/2019 1800")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/13/2019 1800")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 30/2/2019 1800")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event party /from 32/1/2020 1400 /to 4pm")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event party /from 1/13/2020 1400 /to 4pm")).getMessage());
+    }
+
+    @Test
+    public void parseDeadlineAndEvent_hourOrMinuteOutOfRange_rejected() {
+        String message = "Please give a time from 0000 to 2359! Try again.";
+
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019 2400")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019 24")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseDeadline("deadline return book /by 2/12/2019 1860")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event party /from 2/12/2019 2400 /to 4pm")).getMessage());
+    }
+
+    @Test
+    public void parseEvent_missingFromOrTo_rejected() {
+        String message = "Please tell me the time using /from and /to! Try again.";
+
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event party /from 2/12/2019 1400")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event party /to 4pm")).getMessage());
+        assertEquals(message, assertThrows(LukeException.class,
+                () -> Parser.parseEvent("event party /from 2/12/2019 1400 /to  ")).getMessage());
+        assertEquals("Please use format: day/month/year time (e.g., 2/12/2019 1400)", assertThrows(
+                LukeException.class, () -> Parser.parseEvent("event party /from 2/12 1400 /to 4pm")).getMessage());
+    }
+}
@@ -0,0 +1,218 @@
+package luke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load_afterSave_sameTasksInBothFormats() throws LukeException {
+        for (boolean isBinaryFormat : new boolean[] {false, true}) {
+            Path file = tempDir.resolve(isBinaryFormat ? "luke.bin" : "luke.txt");
+            Storage storage = new Storage(file.toString(), isBinaryFormat, false, 0);
+            storage.save(createTasks());
+
+            assertEquals(format(createTasks()), format(storage.load()));
+        }
+    }
+
+    @Test
+    public void load_completeTempFileWithoutSaveFile_recovered() throws IOException, LukeException {
+        Path file = tempDir.resolve("luke.txt");
+        new Storage(file.toString(), false, false, 0).save(createTasks());
+        Files.move(file, tempDir.resolve("luke.txt.tmp"));
+
+        ArrayList<Task> tasks = new Storage(file.toString(), false, false, 0).load();
+
+        assertEquals(format(createTasks()), format(tasks));
+        assertFalse(Files.exists(tempDir.resolve("luke.txt.tmp")));
+    }
+
+    @Test
+    public void load_truncatedTempFileWithoutSaveFile_discarded() throws IOException, LukeException {
+        Path file = tempDir.resolve("luke.txt");
+        new Storage(file.toString(), false, false, 0).save(createTasks());
+        byte[] contents = Files.readAllBytes(file);
+        Files.delete(file);
+        Files.write(tempDir.resolve("luke.txt.tmp"), Arrays.copyOf(contents, contents.length / 2));
+
+        ArrayList<Task> tasks = new Storage(file.toString(), false, false, 0).load();
+
+        assertTrue(tasks.isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("luke.txt.tmp")));
+    }
+
+    @Test
+    public void load_tempFileWithWrongChecksum_discarded() throws IOException, LukeException {
+        Path file = tempDir.resolve("luke.txt");
+        new Storage(file.toString(), false, false, 0).save(createTasks());
+        String contents = Files.readString(file).replace("read book", "read bOok");
+        Files.delete(file);
+        Files.writeString(tempDir.resolve("luke.txt.tmp"), contents);
+
+        assertTrue(new Storage(file.toString(), false, false, 0).load().isEmpty());
+    }
+
+    @Test
+    public void load_journal_replayedOnTopOfSaveFile() throws LukeException {
+        Path file = tempDir.resolve("luke.txt");
+        Storage storage = new Storage(file.toString(), false, true, Long.MAX_VALUE);
+        TaskList taskList = new TaskList(createTasks());
+        storage.save(taskList.getTasks());
+
+        Task added = new Task("buy milk", Task.TYPE_TODO);
+        taskList.addTask(added);
+        storage.recordAdd(taskList.getTasks(), added);
+        taskList.markTaskAsDone(0);
+        storage.recordMark(taskList.getTasks(), 0);
+        taskList.sortByDescription();
+        storage.recordSort(taskList.getTasks(), "description");
+        BitSet deleted = new BitSet();
+        deleted.set(1, 3);
+        long[] deletedIds = {taskList.getTask(1).getId(), taskList.getTask(2).getId()};
+        taskList.deleteTasks(deleted);
+        storage.recordDeletes(taskList.getTasks(), deletedIds);
+
+        ArrayList<Task> loaded = new Storage(file.toString(), false, true, Long.MAX_VALUE).load();
+
+        assertEquals(format(taskList.getTasks()), format(loaded));
+        assertFalse(Files.exists(tempDir.resolve("luke.txt.journal")));
+    }
+
+    @Test
+    public void load_afterSave_keepsMinutesInBothFormats() throws LukeException {
+        for (boolean isBinaryFormat : new boolean[] {false, true}) {
+            Path file = tempDir.resolve(isBinaryFormat ? "minutes.bin" : "minutes.txt");
+            Storage storage = new Storage(file.toString(), isBinaryFormat, false, 0);
+            ArrayList<Task> tasks = new ArrayList<>();
+            tasks.add(Parser.parseDeadline("deadline essay /by 2/12/2019 1830"));
+            tasks.add(Parser.parseDeadline("deadline report /by 2/12/2019 1815"));
+            storage.save(new TaskList(tasks).getTasks());
+
+            ArrayList<Task> loaded = storage.load();
+
+            assertEquals(tasks.get(0).getEpochMinutes(), loaded.get(0).getEpochMinutes());
+            assertEquals(tasks.get(1).getEpochMinutes(), loaded.get(1).getEpochMinutes());
+        }
+    }
+
+    @Test
+    public void load_journalDeleteAfterSortByDate_deletesSameTask() throws LukeException {
+        Path file = tempDir.resolve("luke.txt");
+        Storage storage = new Storage(file.toString(), false, true, Long.MAX_VALUE);
+        TaskList taskList = new TaskList();
+        storage.save(taskList.getTasks());
+        String[] commands = {"deadline essay /by 2/12/2019 1830", "deadline report /by 2/12/2019 1815"};
+        for (String command : commands) {
+            Task task = Parser.parseDeadline(command);
+            taskList.addTask(task);
+            storage.recordAdd(taskList.getTasks(), task);
+        }
+
+        taskList.sortByDate();
+        storage.recordSort(taskList.getTasks(), "date");
+        Task deleted = taskList.getTask(0);
+        taskList.deleteTask(0);
+        storage.recordDelete(taskList.getTasks(), deleted.getId());
+
+        ArrayList<Task> loaded = new Storage(file.toString(), false, true, Long.MAX_VALUE).load();
+
+        assertEquals("report", deleted.getDescription());
+        assertEquals(format(taskList.getTasks()), format(loaded));
+    }
+
+    @Test
+    public void getNextId_afterDeletingLastTask_idNotReusedInBothFormats() throws LukeException {
+        for (boolean isBinaryFormat : new boolean[] {false, true}) {
+            Path file = tempDir.resolve(isBinaryFormat ? "ids.bin" : "ids.txt");
+            TaskList taskList = new TaskList(createTasks());
+            taskList.deleteTask(2);
+            new Storage(file.toString(), isBinaryFormat, false, 0).save(taskList.getTasks(), taskList.getNextId());
+
+            Storage storage = new Storage(file.toString(), isBinaryFormat, false, 0);
+            TaskList reloaded = new TaskList(storage.load(), storage.getNextId());
+            Task task = new Task("buy milk", Task.TYPE_TODO);
+            reloaded.addTask(task);
+
+            assertEquals(4, task.getId());
+        }
+    }
+
+    @Test
+    public void getNextId_taskAddedAndDeletedInJournal_idNotReused() throws LukeException {
+        Path file = tempDir.resolve("luke.txt");
+        Storage storage = new Storage(file.toString(), false, true, Long.MAX_VALUE);
+        TaskList taskList = new TaskList(createTasks());
+        storage.save(taskList.getTasks());
+        Task added = new Task("buy milk", Task.TYPE_TODO);
+        taskList.addTask(added);
+        storage.recordAdd(taskList.getTasks(), added);
+        taskList.deleteTask(3);
+        storage.recordDelete(taskList.getTasks(), added.getId());
+
+        Storage reloaded = new Storage(file.toString(), false, true, Long.MAX_VALUE);
+        reloaded.load();
+
+        assertEquals(5, reloaded.getNextId());
+    }
+
+    @Test
+    public void load_staleJournalNextToSameSizeSaveFile_discarded() throws IOException, LukeException {
+        Path file = tempDir.resolve("luke.txt");
+        Path journal = tempDir.resolve("luke.txt.journal");
+        Storage storage = new Storage(file.toString(), false, true, Long.MAX_VALUE);
+        ArrayList<Task> tasks = createTasks();
+        storage.save(tasks);
+        Task added = new Task("buy milk", Task.TYPE_TODO);
+        tasks.add(added);
+        storage.recordAdd(tasks, added);
+        byte[] staleJournal = Files.readAllBytes(journal);
+        long staleSize = Files.size(file);
+
+        // Compacting removes the journal; put it back as if Luke stopped before removing it
+        tasks.remove(added);
+        tasks.get(0).markAsDone();
+        storage.save(tasks);
+        Files.write(journal, staleJournal);
+        assertEquals(staleSize, Files.size(file));
+
+        ArrayList<Task> loaded = new Storage(file.toString(), false, true, Long.MAX_VALUE).load();
+
+        assertEquals(format(tasks), format(loaded));
+        assertFalse(Files.exists(journal));
+    }
+
+    private static ArrayList<Task> createTasks() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Task("read book", Task.TYPE_TODO));
+        Task deadline = new Task("essay", Task.TYPE_DEADLINE);
+        deadline.setTime("Dec 2 2019, 6PM");
+        deadline.markAsDone();
+        tasks.add(deadline);
+        Task event = new Task("party", Task.TYPE_EVENT);
+        event.setTime("Mon after lunch,");
+        tasks.add(event);
+        return new TaskList(tasks).getTasks();
+    }
+
+    private static String format(ArrayList<Task> tasks) {
+        StringBuilder text = new StringBuilder();
+        for (Task task : tasks) {
+            text.append(task.getId()).append(' ').append(task).append('\n');
+        }
+        return text.toString();
+    }
+}
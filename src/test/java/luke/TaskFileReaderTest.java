@@ -0,0 +1,81 @@
+package luke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TaskFileReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void read_freeTextTimeEndingInComma_loadedWithoutDate() throws IOException {
+        ArrayList<Task> tasks = read("E | 0 | party | Mon after lunch,\n");
+
+        assertEquals(1, tasks.size());
+        assertEquals("Mon after lunch,", tasks.get(0).getTime());
+        assertFalse(tasks.get(0).hasDate());
+    }
+
+    @Test
+    public void read_epochMinutesField_keepsMinutes() throws IOException {
+        ArrayList<Task> tasks = read("#1 | D | 0 | essay | Dec 2 2019, 6PM | 26255190\n"
+                + "#2 | D | 0 | report | Dec 2 2019, 6PM\n");
+
+        assertEquals("Dec 2 2019, 6PM", tasks.get(0).getTime());
+        assertEquals(26255190, tasks.get(0).getEpochMinutes());
+        assertEquals(26255160, tasks.get(1).getEpochMinutes());
+    }
+
+    @Test
+    public void read_invalidLines_skippedAndRestLoaded() throws IOException {
+        String contents = "#1 | T | 0 | read book\n"
+                + "T | 0\n"
+                + "#x | T | 0 | bad id\n"
+                + "#2 | D | 1 | essay | Dec 2 2019, 6PM\n";
+
+        ArrayList<Task> tasks = read(contents);
+
+        assertEquals(2, tasks.size());
+        assertEquals("read book", tasks.get(0).getDescription());
+        assertEquals("essay", tasks.get(1).getDescription());
+    }
+
+    @Test
+    public void readParallel_invalidLines_skippedAndRestLoaded() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        for (int i = 1; i <= 100_000; i++) {
+            contents.append(i % 1000 == 0 ? "T | 0\n" : "#" + i + " | T | 0 | task " + i + "\n");
+        }
+        Path file = tempDir.resolve("large.txt");
+        Files.writeString(file, contents, StandardCharsets.UTF_8);
+
+        ArrayList<Task> tasks;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            tasks = TaskFileReader.readParallel(channel, new ForkJoinPool(4));
+        }
+
+        assertEquals(99_900, tasks.size());
+        assertEquals(1, tasks.get(0).getId());
+        assertEquals(100_000 - 1, tasks.get(tasks.size() - 1).getId());
+    }
+
+    private ArrayList<Task> read(String contents) throws IOException {
+        Path file = tempDir.resolve("luke.txt");
+        Files.writeString(file, contents, StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return TaskFileReader.read(channel);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package luke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskListTest {
+    @Test
+    public void indexOf_afterDeletesAndSorts_matchesListOrder() {
+        TaskList taskList = new TaskList(createTasks(50));
+        taskList.deleteTask(3);
+        assertIndexesMatch(taskList);
+
+        BitSet indexes = new BitSet();
+        indexes.set(0);
+        indexes.set(10, 20);
+        taskList.deleteTasks(indexes);
+        assertIndexesMatch(taskList);
+
+        taskList.sortByDescription();
+        assertIndexesMatch(taskList);
+
+        taskList.addTask(new Task("new task", Task.TYPE_TODO));
+        taskList.sortByType();
+        assertIndexesMatch(taskList);
+    }
+
+    @Test
+    public void indexOf_deletedTask_notFound() {
+        TaskList taskList = new TaskList(createTasks(5));
+        long id = taskList.getTask(2).getId();
+
+        taskList.deleteTask(2);
+
+        assertEquals(-1, taskList.indexOf(id));
+    }
+
+    @Test
+    public void addTask_savedNextIdAboveTasks_idsOfDeletedTasksNotReused() {
+        TaskList taskList = new TaskList(createTasks(5));
+        taskList.deleteTask(4);
+        long nextId = taskList.getNextId();
+
+        TaskList reloaded = new TaskList(new ArrayList<>(taskList.getTasks()), nextId);
+        Task task = new Task("new task", Task.TYPE_TODO);
+        reloaded.addTask(task);
+
+        assertEquals(6, task.getId());
+    }
+
+    @Test
+    public void sortByDate_acrossMonthsAndYears_untimedThenChronologicalThenFreeText() throws LukeException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(Parser.parseDeadline("deadline jan 2020 /by 5/1/2020 0900"));
+        taskList.addTask(createEvent("sunday trip", "sunday"));
+        taskList.addTask(Parser.parseDeadline("deadline dec 31 /by 31/12/2019 2359"));
+        taskList.addTask(new Task("untimed", Task.TYPE_TODO));
+        taskList.addTask(Parser.parseDeadline("deadline dec 2 late /by 2/12/2019 1830"));
+        taskList.addTask(Parser.parseDeadline("deadline feb 2019 /by 1/2/2019 1200"));
+        taskList.addTask(createEvent("lunch talk", "Mon after lunch"));
+        taskList.addTask(Parser.parseDeadline("deadline dec 2 early /by 2/12/2019 1800"));
+
+        taskList.sortByDate();
+
+        // Formatted times would sort as text to Dec, Dec, Dec, Feb, Jan, and both Dec 2 tasks read "6PM"
+        assertEquals(List.of("untimed", "feb 2019", "dec 2 early", "dec 2 late", "dec 31", "jan 2020",
+                "lunch talk", "sunday trip"), getDescriptions(taskList));
+        assertIndexesMatch(taskList);
+    }
+
+    @Test
+    public void sortByDate_afterAddDeleteAndResort_sameAsSortingFromScratch() throws LukeException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 30; i++) {
+            taskList.addTask(Parser.parseDeadline("deadline task " + i + " /by " + (1 + i * 7 % 28) + "/"
+                    + (1 + i * 5 % 12) + "/" + (2019 + i % 3) + " " + String.format("%02d", i % 24)));
+        }
+        taskList.sortByDate(); // Builds the date view
+
+        taskList.addTask(Parser.parseDeadline("deadline added /by 15/6/2020 1000"));
+        taskList.addTask(createEvent("added free text", "after exams"));
+        taskList.addTask(new Task("added untimed", Task.TYPE_TODO));
+        taskList.deleteTask(5);
+        BitSet indexes = new BitSet();
+        indexes.set(10, 14);
+        taskList.deleteTasks(indexes);
+        taskList.sortByDescription(); // Moves the list away from date order
+
+        ArrayList<Task> copies = new ArrayList<>();
+        for (Task task : taskList.getTasks()) {
+            Task copy = new Task(task.getDescription(), task.getType());
+            copy.setId(task.getId());
+            copy.setTime(task.getTime(), task.getEpochMinutes());
+            copies.add(copy);
+        }
+        TaskList fresh = new TaskList(copies);
+        fresh.sortByDate();
+        taskList.sortByDate(); // Reuses the date view
+
+        assertIndexesMatch(taskList);
+        assertEquals(getDescriptions(fresh), getDescriptions(taskList));
+
+        ArrayList<Task> sorted = taskList.getTasks();
+        for (int i = 1; i < sorted.size(); i++) {
+            Task previous = sorted.get(i - 1);
+            Task current = sorted.get(i);
+            if (previous.hasDate() && current.hasDate()) {
+                assertTrue(previous.getEpochMinutes() <= current.getEpochMinutes());
+            }
+        }
+    }
+
+    private static Task createEvent(String description, String time) {
+        Task event = new Task(description, Task.TYPE_EVENT);
+        event.setTime(time);
+        return event;
+    }
+
+    private static List<String> getDescriptions(TaskList taskList) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : taskList.getTasks()) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions;
+    }
+
+    private static ArrayList<Task> createTasks(int count) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("task " + (count - i), i % 2 == 0 ? Task.TYPE_TODO : Task.TYPE_DEADLINE));
+        }
+        return tasks;
+    }
+
+    private static void assertIndexesMatch(TaskList taskList) {
+        for (int i = 0; i < taskList.size(); i++) {
+            assertEquals(i, taskList.indexOf(taskList.getTask(i).getId()));
+        }
+    }
+}